@@ -1,6 +1,7 @@
 plugins {
     id("java")
     id("org.jetbrains.intellij") version "1.13.3"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.example"
@@ -39,12 +40,28 @@ tasks {
     publishPlugin {
         token.set(System.getenv("PUBLISH_TOKEN"))
     }
+
+    // Unit tests, in src/test/java - run them with ./gradlew test
+    test {
+        useJUnitPlatform()
+    }
 }
 
 dependencies {
     implementation("org.caseine:caseine.vpl.tools.vplclient:1.2.0")
     implementation("org.glassfish:javax.json:1.1.4")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.9.3")
+    testRuntimeOnly("org.junit.platform:junit-platform-launcher:1.9.3")
 }
+// Benchmarks of the plugin's hot paths, in src/jmh/java - run them with ./gradlew jmh
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    resultFormat.set("JSON")
+}
+
 java {
     sourceCompatibility = JavaVersion.VERSION_16
     targetCompatibility = JavaVersion.VERSION_16
@@ -0,0 +1,60 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package benchmark;
+
+import comments.CommentScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the search of the teacher's comments done by the Highlighter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommentScanBenchmark {
+
+    /**
+     * The number of lines of the file
+     */
+    @Param({"100", "10000", "200000"})
+    public int lines;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        StringBuilder file = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            file.append(i % 20 == 0 ? "    /// TODO complete the method " : "    int value = compute(").append(i).append(");\n");
+        }
+        text = file.toString();
+    }
+
+    @Benchmark
+    public List<int[]> findComments() {
+        return CommentScanner.findComments(text, 0, text.length(), "///");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import service.IgnoreMatcher;
+import vplwsclient.FileUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the matching of every file of a project against the patterns of the default .vplignore.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class IgnoreMatchingBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int files;
+
+    private List<String> paths;
+
+    private IgnoreMatcher matcher;
+
+    private final List<String> excludedFiles = new ArrayList<>(List.of(
+            ".idea", ".idea/**", "out", "out/**", "workspace.xml", "*.iml", ".moodlevpl", ".vplignore"));
+
+    @Setup
+    public void setup() {
+        paths = Reports.paths(files);
+        matcher = IgnoreMatcher.compile(excludedFiles);
+    }
+
+    @Benchmark
+    public int isExcluded() {
+        int excluded = 0;
+        for (String path : paths) {
+            if (FileUtils.isExcluded(path, excludedFiles)) {
+                excluded++;
+            }
+        }
+        return excluded;
+    }
+
+    @Benchmark
+    public int compiledIsExcluded() {
+        int excluded = 0;
+        for (String path : paths) {
+            if (matcher.isExcluded(path)) {
+                excluded++;
+            }
+        }
+        return excluded;
+    }
+}
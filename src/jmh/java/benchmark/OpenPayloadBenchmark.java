@@ -0,0 +1,74 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import vplwsclient.RestJsonMoodleClient;
+import vplwsclient.VplFile;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the decoding of a VPL_OPEN response into the files of the project.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OpenPayloadBenchmark {
+
+    /**
+     * "files:size" - the number of files and the size in bytes of each file
+     */
+    @Param({"10:2000", "500:2000", "5000:2000", "5:10485760"})
+    public String shape;
+
+    private String payload;
+
+    @Setup
+    public void setup() {
+        String[] parts = shape.split(":");
+        int size = Integer.parseInt(parts[1]);
+        Random random = new Random(42);
+        List<String> paths = Reports.paths(Integer.parseInt(parts[0]));
+        JsonArrayBuilder files = Json.createArrayBuilder();
+        for (String path : paths) {
+            files.add(Json.createObjectBuilder().add("name", path).add("data", Reports.text(random, size)));
+        }
+        payload = Json.createObjectBuilder().add("files", files).build().toString();
+    }
+
+    @Benchmark
+    public VplFile[] decode() {
+        try (JsonReader reader = Json.createReader(new StringReader(payload))) {
+            JsonObject response = reader.readObject();
+            return RestJsonMoodleClient.extractFiles(response, "files");
+        }
+    }
+}
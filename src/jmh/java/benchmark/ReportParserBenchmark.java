@@ -0,0 +1,56 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import sideWindow.EvaluationReportParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the parsing of the evaluation report, as done by {@code CompSciToolsSideWindow.getTestResults}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportParserBenchmark {
+
+    /**
+     * "tests:output" - the number of tests and the size in bytes of the program output of each test
+     */
+    @Param({"10:100", "1000:100", "10000:100", "1:52428800"})
+    public String shape;
+
+    private String report;
+
+    @Setup
+    public void setup() {
+        String[] parts = shape.split(":");
+        report = Reports.evaluation(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+    }
+
+    @Benchmark
+    public EvaluationReportParser.Report parse() {
+        return EvaluationReportParser.parse(report);
+    }
+}
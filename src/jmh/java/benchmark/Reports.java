@@ -0,0 +1,88 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic inputs shared by the benchmarks. A fixed seed keeps them identical from one run to another.
+ */
+final class Reports {
+
+    private Reports() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Build an evaluation report in the format given by the execution server.
+     *
+     * @param tests      the number of tests
+     * @param outputSize the size of the program output of each test
+     * @return the report
+     */
+    static String evaluation(int tests, int outputSize) {
+        Random random = new Random(42);
+        StringBuilder report = new StringBuilder("-Tests results\n");
+        int passed = 0;
+        for (int i = 1; i <= tests; i++) {
+            String expected = text(random, outputSize);
+            boolean pass = random.nextBoolean();
+            String output = pass ? expected : text(random, outputSize);
+            if (pass) passed++;
+            report.append("-Test ").append(i).append(": Test case ").append(i).append('\n')
+                    .append(pass ? "Correct" : "Incorrect program output").append('\n')
+                    .append(" --- Input ---\n>").append(i).append('\n')
+                    .append(" --- Program output ---\n>").append(output).append('\n')
+                    .append(" --- Expected output (exact text)---\n>").append(expected).append("\n\n");
+        }
+        report.append("\n-Summary of tests\n>+------------------------------+\n>| ")
+                .append(tests).append(" tests run/ ").append(passed).append(" tests passed |\n")
+                .append(">+------------------------------+\n");
+        return report.toString();
+    }
+
+    /**
+     * Build lines of printable text, some of them containing parentheses.
+     */
+    static String text(Random random, int size) {
+        StringBuilder text = new StringBuilder(size);
+        while (text.length() < size) {
+            int c = random.nextInt(64);
+            text.append(c == 0 ? '\n' : c == 1 ? '(' : c == 2 ? ')' : (char) ('a' + c % 26));
+        }
+        text.setLength(size);
+        return text.toString();
+    }
+
+    /**
+     * Build the relative paths of a project tree.
+     *
+     * @param files the number of files
+     * @return the paths, with '/' as separator
+     */
+    static List<String> paths(int files) {
+        Random random = new Random(42);
+        String[] directories = {"", "src/", "src/main/", "src/main/java/", "out/production/", ".idea/", "data/", "src/test/"};
+        String[] extensions = {".java", ".class", ".txt", ".csv", ".iml", ".xml", ".py"};
+        List<String> paths = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            paths.add(directories[random.nextInt(directories.length)] + "file" + i + extensions[random.nextInt(extensions.length)]);
+        }
+        return paths;
+    }
+}
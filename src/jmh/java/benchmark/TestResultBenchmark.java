@@ -0,0 +1,62 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import sideWindow.TestResult;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link TestResult#parseText(String)}, which removes the numbering of the name with {@code deleteNumbering}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TestResultBenchmark {
+
+    /**
+     * The number of "(i/n)" groups in the name of the test
+     */
+    @Param({"1", "100", "10000"})
+    public int numberings;
+
+    private String resultText;
+
+    @Setup
+    public void setup() {
+        StringBuilder name = new StringBuilder("package.Suite.Test succeed");
+        for (int i = 1; i <= numberings; i++) {
+            name.append(" (").append(i).append('/').append(numberings).append(')');
+        }
+        resultText = name + "\n" + Reports.text(new Random(42), 1000) + "\nAssertionError";
+    }
+
+    @Benchmark
+    public TestResult parseText() {
+        TestResult result = new TestResult();
+        result.parseText(resultText);
+        return result;
+    }
+}
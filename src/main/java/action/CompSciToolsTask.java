@@ -0,0 +1,571 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+
+package action;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import module.CompSciToolsModuleBuilder;
+import notifications.CompSciToolsNotifier;
+import org.jetbrains.annotations.NotNull;
+import service.ContentManifest;
+import service.DownloadedFiles;
+import service.EvaluationListener;
+import service.EvaluationMonitor;
+import service.IgnoreMatcher;
+import service.IncludedFilesIndex;
+import service.MoodleErrorException;
+import service.PersistentStorage;
+import service.PluginMetrics;
+import service.PluginScheduler;
+import service.PooledMoodleClient;
+import service.PushOutbox;
+import service.ServiceGetter;
+import service.ServiceUnreachableException;
+import service.SubmissionLimitException;
+import service.VplProjectService;
+import sideWindow.CompSciToolsSideWindow;
+import sideWindow.CompSciToolsSideWindowFactory;
+import ui.icons.CompSciToolsIcons;
+import vplwsclient.RestJsonMoodleClient;
+import vplwsclient.RestJsonMoodleClient.VPLService;
+import vplwsclient.VplFile;
+import vplwsclient.exception.*;
+
+import javax.json.JsonObject;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static module.CompSciToolsModuleBuilder.createVplignoreFile;
+import static service.ServiceGetter.writeFilesToDisk;
+
+/**
+ * This class runs the actions of the side window (reset, pull, push and evaluate) as a background task.
+ * The network and disk work never happen on the event dispatch thread: only the confirmation dialog of a pull is shown
+ * on it, and the virtual file system is refreshed asynchronously once the files are written.
+ * Cancelling the task aborts the web service call in progress.
+ */
+public class CompSciToolsTask extends Task.Backgroundable {
+
+    /**
+     * Delay in milliseconds between two checks of the cancellation while a web service call is in progress
+     */
+    private static final long CANCEL_CHECK_PERIOD = 50;
+
+    /**
+     * A call to the web service or to the file system which may be aborted.
+     */
+    @FunctionalInterface
+    private interface Call<T> {
+        T call() throws Exception;
+    }
+
+    private final String command;
+
+    private final String basePath;
+
+    private ServiceGetter servGet;
+
+    private ProgressIndicator indicator;
+
+    /**
+     * Create the task of an action.
+     *
+     * @param project the project from where the button was pressed
+     * @param command the name of the pressed button
+     */
+    public CompSciToolsTask(@NotNull Project project, String command) {
+        super(project, "CompSci Tools: " + command, true);
+        this.command = command;
+        this.basePath = project.getBasePath() + File.separator; //The path of where to found the project and the files associated with
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        this.indicator = indicator;
+        Project project = getProject();
+        try {
+            //Retrieve the ServiceGetter shared by the project, it makes sure everything is correct and has not been changed
+            phase("Connecting to CompSci Tools...", false);
+            servGet = await(() -> {
+                ServiceGetter serviceGetter = VplProjectService.getInstance(project).getServiceGetter();
+                if (command.equals("Reset")) {
+                    serviceGetter.update(); // The initial files must be up-to-date
+                }
+                return serviceGetter;
+            });
+
+            if (servGet.hasFailed()) {
+                if (command.equals("Push") && servGet.isUnreachable()) {
+                    //The files will be pushed once the connection is back
+                    queuePush();
+                    return;
+                }
+                //If the connection has failed, or the token is not valid anymore, ask the user to check the settings
+                CompSciToolsNotifier.notifyConnectionError(project, true);
+                return;
+            }
+
+            // Successful Connection
+            switch (command) {
+                case "Reset":
+                    if (pull(true)) {
+                        CompSciToolsNotifier.notifyInfo(project, "CompSci Tools Project successfully reset", "", CompSciToolsIcons.Reset); // Notification should depend on the context instead of the action performed so that it can be called from different context.
+                    }
+                    break;
+                case "Pull":
+                    if (pull(false)) {
+                        CompSciToolsNotifier.notifyInfo(project, "CompSci Tools Project successfully imported", "", CompSciToolsIcons.Pull); // Notification should depend on the context instead of the action performed so that it can be called from different context.
+                    }
+                    break;
+                case "Push":
+                    if (push()) {
+                        CompSciToolsNotifier.notifyInfo(project, "CompSci Tools Project successfully exported", "", CompSciToolsIcons.Push); // Notification should depend on the context instead of the action performed so that it can be called from different context.
+                    } else {
+                        CompSciToolsNotifier.notifyInfo(project, "CompSci Tools Project already up to date", "No file has changed since the last push", CompSciToolsIcons.Push);
+                    }
+                    break;
+                case "Evaluate":
+                    // Notify that the evaluation has started.
+                    CompSciToolsNotifier.notifyInfo(project, "Evaluation is in progress...", "", CompSciToolsIcons.Evaluate); // Notification should depend on the context instead of the action performed so that it can be called from different context.
+                    evaluate();
+                    break;
+                default:
+                    CompSciToolsNotifier.notifyError(project, "ERROR : Internal code error", "Selected button doesn't exist or its name is misspelled in the code");
+            }
+        } catch (ServiceUnreachableException e) {
+            if (command.equals("Push")) {
+                //The connection dropped during the push
+                queuePush();
+            } else {
+                handleActionException(e, command);
+            }
+        } catch (IOException | VplException | InterruptedException | SubmissionLimitException e) {
+            handleActionException(e, command);
+        }
+    }
+
+    /**
+     * Keep a snapshot of the files of the project in its {@link PushOutbox}, to upload them in the background once the
+     * web service can be reached again. The files are first checked against the last known limits of the exercise.
+     */
+    private void queuePush() {
+        String path = basePath + CompSciToolsModuleBuilder.SOURCE_DIRECTORY;
+        String vplID = PersistentStorage.getInstance().getProjectVplID(basePath);
+        try {
+            List<File> listFiles = IncludedFilesIndex.getInstance(getProject()).listFiles();
+            //The VPL would refuse files exceeding its limits once the connection is back, the user must know now
+            servGet.getLastKnownLimits().check(listFiles, path);
+            PushOutbox.getInstance(getProject()).enqueue(vplID, listFiles, path);
+        } catch (IOException | SubmissionLimitException e) {
+            handleActionException(e, command);
+            return;
+        }
+        CompSciToolsNotifier.notifyWarning(getProject(), "Push queued",
+                "CompSci Tools cannot be reached. Your files will be uploaded as soon as the connection is back.");
+    }
+
+    @Override
+    public void onCancel() {
+        CompSciToolsNotifier.notifyWarning(getProject(), command + " cancelled", "");
+        if (command.equals("Evaluate") && servGet != null) {
+            //The results of the aborted evaluation will never come, show the last ones again
+            CompSciToolsSideWindow csw = CompSciToolsSideWindowFactory.getCsw(getProject());
+            PluginScheduler.getInstance().execute("Show last results", getProject(), () -> csw.initResults(basePath));
+        }
+    }
+
+    /**
+     * Show the current phase of the action in the progress indicator.
+     *
+     * @param text        the text describing the phase
+     * @param determinate {@code true} if the phase reports its progress as a fraction
+     */
+    private void phase(String text, boolean determinate) {
+        indicator.checkCanceled();
+        indicator.setText(text);
+        indicator.setIndeterminate(!determinate);
+        indicator.setFraction(0);
+    }
+
+    /**
+     * Run a blocking call on the network pool of the scheduler of the plugin and wait for its result while checking
+     * the cancellation of the task.
+     * If the task is cancelled, the call is interrupted and the wait ends immediately.
+     *
+     * @param call the call to run
+     * @return the result of the call
+     * @throws VplException         If the call failed within the interaction with the web service
+     * @throws IOException          If the call failed within the interaction with local file system
+     * @throws InterruptedException If the thread of the task was interrupted
+     */
+    private <T> T await(Call<T> call) throws VplException, IOException, InterruptedException {
+        Future<T> future = PluginScheduler.getInstance().submitBlocking(command, getProject(), call::call);
+        try {
+            while (true) {
+                indicator.checkCanceled();
+                try {
+                    return future.get(CANCEL_CHECK_PERIOD, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    //Still running, check the cancellation again
+                }
+            }
+        } catch (ProcessCanceledException | InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            //ServiceGetter wraps the exceptions of the web service in RuntimeExceptions
+            if (cause instanceof RuntimeException && cause.getCause() instanceof VplException) {
+                cause = cause.getCause();
+            }
+            if (cause instanceof CancellationException) {
+                //The call was interrupted, the task is cancelled rather than the VPL unreachable
+                throw new ProcessCanceledException(cause);
+            }
+            if (cause instanceof VplException) throw (VplException) cause;
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof InterruptedException) throw (InterruptedException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Ask the user, on the event dispatch thread, to confirm an action.
+     *
+     * @param message the question to ask
+     * @return {@code true} if the user confirmed
+     */
+    private boolean confirm(String message) {
+        AtomicBoolean confirmed = new AtomicBoolean();
+        ApplicationManager.getApplication().invokeAndWait(() -> confirmed.set(
+                Messages.showOkCancelDialog(getProject(), message, "Confirmation", "OK", "Cancel", Messages.getQuestionIcon()) == Messages.OK));
+        return confirmed.get();
+    }
+
+    /**
+     * Handle the exceptions caused by actions (except a new project).
+     * !! Make sure that this function is called at the end of the action handling !!
+     * Otherwise, you may end up notifying the user some time for the same problem.
+     *
+     * @param e       Raised exception to handle. It can be of type {@link NoSuchFileException}, {@link MaxFilesException}, {@link SubmissionLimitException}, {@link IOException}, {@link VplException}, {@link InterruptedException} or {@link AlreadyTreatedException}.
+     * @param command A string indicating the handled action that failed.
+     */
+    private void handleActionException(Exception e, String command) {
+        Project project = getProject();
+        if (e instanceof RequiredFileNotFoundException) {
+            CompSciToolsNotifier.notifyError(project, "Required Files are missing.", e.getMessage());
+            return;
+        }
+        if (e instanceof NoSuchFileException) {
+            CompSciToolsNotifier.notifyError(project, "ERROR : file not found", "The files you want to push or evaluate are not in the project/have been deleted");
+            return;
+        }
+        if (e instanceof MaxFilesException) {
+            CompSciToolsNotifier.notifyError(project, "Maximum Number Of Files Exceeded", e.getMessage(),
+                    new NotificationAction[]{
+                            new NotificationAction("Open .vplignore") {
+                                @Override
+                                public void actionPerformed(@NotNull AnActionEvent e, @NotNull Notification notification) {
+                                    createVplignoreFile(project);
+                                    VirtualFile vFile = LocalFileSystem.getInstance().findFileByPath(project.getBasePath() + File.separator + ".vplignore");
+                                    if (vFile != null) {
+                                        FileEditorManager.getInstance(project).openFile(vFile, true);
+                                    }
+                                }
+                            }
+                    });
+            return;
+        }
+        if (e instanceof SubmissionLimitException limitException) {
+            //The files pushed are filtered by the .vplignore file of the source directory
+            String ignorePath = basePath + CompSciToolsModuleBuilder.SOURCE_DIRECTORY + File.separator + IgnoreMatcher.IGNORE_FILE_NAME;
+            StringBuilder body = new StringBuilder(e.getMessage());
+            if (!limitException.getPatterns().isEmpty()) {
+                body.append("<br>Adding these lines to ").append(CompSciToolsModuleBuilder.SOURCE_DIRECTORY).append("/")
+                        .append(IgnoreMatcher.IGNORE_FILE_NAME).append(" would exclude them:<br>")
+                        .append(String.join("<br>", limitException.getPatterns()));
+            }
+            CompSciToolsNotifier.notifyError(project, "Submission Exceeds The Exercise Limits", body.toString(),
+                    new NotificationAction[]{
+                            new NotificationAction("Open .vplignore") {
+                                @Override
+                                public void actionPerformed(@NotNull AnActionEvent e, @NotNull Notification notification) {
+                                    File ignoreFile = new File(ignorePath);
+                                    try {
+                                        ignoreFile.createNewFile();
+                                    } catch (IOException ex) {
+                                        //Opened only if it exists
+                                    }
+                                    VirtualFile vFile = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(ignoreFile);
+                                    if (vFile != null) {
+                                        FileEditorManager.getInstance(project).openFile(vFile, true);
+                                    }
+                                }
+                            }
+                    });
+            return;
+        }
+        if (e instanceof MoodleErrorException error && error.isAuthenticationError()) {
+            //The token or the session is not valid anymore, the user must reconnect
+            CompSciToolsNotifier.notifyConnectionError(project, true);
+            return;
+        }
+        if (e instanceof IOException || e instanceof VplException || e instanceof InterruptedException) {
+            CompSciToolsNotifier.notifyError(project, "Error During Tool Action : " + command, "IOException, VplException or InterruptedException occurred\n" + e.getMessage());
+            return;
+        }
+        if (e instanceof AlreadyTreatedException) {
+            // The problem has already been dealt with. Just do nothing.
+            return;
+        }
+        // If this line is reach, there is an error in the plugin implementation.
+        throw new RuntimeException("Internal error. Please report this to devs@compsci.tools", e);
+    }
+
+    /**
+     * Pull current project from the vpl.
+     *
+     * @param reset {@code true} If this method is called by a reset action and project should be pull from initial project state. Else, the project will be pulled from the last saved (pushed/evaluated) version of your project.
+     * @return {@code true} if the pull was performed, {@code false} if it was cancelled by the user.
+     * @throws VplException         In case an error happened in the moodle client or in case of a connexion issue.
+     * @throws IOException          In case of an error with the local file system.
+     * @throws InterruptedException If the thread of the task was interrupted
+     */
+    private boolean pull(boolean reset) throws VplException, IOException, InterruptedException {
+        String warningMsg = "Warning! You are about to overwrite your project for the exercise: " + servGet.getExerciseName() + ".\nAre you sure you want to continue ?";
+        //Ask the user if he really wants to erase the actual file
+        if (!confirm(warningMsg)) {
+            return false;
+        }
+        // In case of a reset, create .vplignore file
+        if (reset) {
+            new File(basePath + ".vplignore").delete(); // Delete vplignore to assure it refresh
+            CompSciToolsModuleBuilder.createVplignoreFile(getProject());
+        }
+        phase("Downloading files...", false);
+        PushOutbox outbox = holdOutbox();
+        try {
+            Map<String, String> hashes;
+            if (reset) {
+                //The initial files are part of the exercise info, which is already in memory
+                VplFile[] files = await(servGet::getReqFiles);
+
+                //Proceed to reset the files, the progress is reported by the synchronization
+                phase("Writing files...", true);
+                hashes = writeFilesToDisk(files, basePath);
+            } else {
+                //The files are stored in temporary files while they are received
+                try (DownloadedFiles files = await(servGet::downloadFiles)) {
+                    phase("Writing files...", true);
+                    hashes = writeFilesToDisk(files.getFiles(), basePath);
+                }
+            }
+            if (reset) {
+                //The initial files are not what was last saved on the VPL
+                ContentManifest.invalidate(basePath);
+            } else {
+                new ContentManifest(PersistentStorage.getInstance().getProjectVplID(basePath), hashes).save(basePath);
+            }
+            //The project now holds the files of the VPL, the queued push must not overwrite them
+            outbox.clear();
+        } finally {
+            outbox.release();
+        }
+        return true;
+    }
+
+    /**
+     * Call the client to push all the files of the project to save them on the platform.
+     * The push is skipped when the content manifest shows that nothing has changed since the last one.
+     *
+     * @return {@code true} if the files were saved on the platform, {@code false} if they were already up to date.
+     * @throws VplException             En error occurred within the interaction with the web service
+     * @throws IOException              An error occurred within the interaction with local file system
+     * @throws InterruptedException     If the thread of the task was interrupted
+     * @throws SubmissionLimitException If the files exceed the limits of the exercise
+     */
+    private boolean push() throws VplException, IOException, InterruptedException, SubmissionLimitException {
+        //No queued push is uploaded during this one, it would overwrite the newer files
+        PushOutbox outbox = holdOutbox();
+        try {
+            return push(outbox);
+        } finally {
+            outbox.release();
+        }
+    }
+
+    /**
+     * Push the files of the project, while holding its outbox.
+     */
+    private boolean push(PushOutbox outbox) throws VplException, IOException, InterruptedException, SubmissionLimitException {
+        String path = basePath + CompSciToolsModuleBuilder.SOURCE_DIRECTORY;
+        //The included files are kept up to date by the index, the directory is only walked if it could not follow a change
+        phase("Listing files...", false);
+        IncludedFilesIndex index = IncludedFilesIndex.getInstance(getProject());
+        PluginMetrics metrics = PluginMetrics.getInstance();
+        long start = System.nanoTime();
+        List<File> listFiles = index.listFiles();
+        metrics.recordPhase(PluginMetrics.LISTING_FILES, start);
+
+        //Fail before reading any file if the VPL would refuse them
+        servGet.getLimits().check(listFiles, path);
+
+        //Compare the files with the ones saved by the last push, only the modified files are read again
+        phase("Hashing files...", true);
+        String vplID = PersistentStorage.getInstance().getProjectVplID(basePath);
+        start = System.nanoTime();
+        Map<String, String> hashes = index.hashFiles(listFiles);
+        metrics.recordPhase(PluginMetrics.HASHING_FILES, start);
+        if (ContentManifest.load(basePath).matches(vplID, hashes)) {
+            //The VPL already has these files, a queued push would be older
+            outbox.clear();
+            return false;
+        }
+
+        phase("Uploading files...", false);
+        Map<String, File> files = new LinkedHashMap<>();
+        for (File file : listFiles) {
+            String standardFilePath = file.getPath()
+                    .replace(File.separator, "/");
+            String name = standardFilePath.replace(path.replace(File.separator, "/") + "/", "");
+            //The files deleted since the index last heard of them have no hash
+            if (hashes.containsKey(name)) {
+                files.put(name, file);
+            }
+        }
+        //Call the service to save all the file in the list given in arguments
+        RestJsonMoodleClient RJMC = servGet.getRJMC();
+        if (RJMC instanceof PooledMoodleClient pooled) {
+            //The files are read while they are sent, they are never all in memory
+            await(() -> pooled.saveFiles(files));
+        } else {
+            List<VplFile> listVFile = new ArrayList<>();
+            for (Map.Entry<String, File> file : files.entrySet()) {
+                listVFile.add(new VplFile(file.getValue(), file.getKey()));
+            }
+            await(() -> RJMC.callServiceWithFiles(VPLService.VPL_SAVE, listVFile));
+        }
+        new ContentManifest(vplID, hashes).save(basePath);
+        outbox.clear();
+        return true;
+    }
+
+    /**
+     * Hold the outbox of the project, see {@link PushOutbox#acquire(long, TimeUnit)}, while checking the cancellation
+     * of the task.
+     *
+     * @return the outbox, to release once the VPL and the project hold the same files
+     * @throws InterruptedException If the thread of the task was interrupted
+     */
+    private PushOutbox holdOutbox() throws InterruptedException {
+        PushOutbox outbox = PushOutbox.getInstance(getProject());
+        while (!outbox.acquire(CANCEL_CHECK_PERIOD, TimeUnit.MILLISECONDS)) {
+            //An upload of the outbox is in progress
+            indicator.checkCanceled();
+        }
+        return outbox;
+    }
+
+    /**
+     * Call the client to push all the files needed for the exercise, evaluate them and return the results to the user.
+     * The side window tells the user that the evaluation is running and shows its results once it has finished.
+     *
+     * @throws VplException             En error occurred within the interaction with the web service
+     * @throws IOException              An error occurred within the interaction with local file system
+     * @throws InterruptedException     If the thread of the task was interrupted
+     * @throws SubmissionLimitException If the files exceed the limits of the exercise
+     */
+    private void evaluate() throws VplException, IOException, InterruptedException, SubmissionLimitException {
+        Project project = getProject();
+        CompSciToolsSideWindow csw = CompSciToolsSideWindowFactory.getCsw(project);
+        try {
+            // Avert the user that the evaluation is running
+            csw.setSelectedTab();
+            csw.setResultsTree("", "");
+            csw.setResultGrade("Evaluation is running...", true);
+
+            //We need to push the file before the evaluation, unless it has not changed since the last push
+            push();
+
+            phase("Evaluating...", false);
+            RestJsonMoodleClient RJMC = servGet.getRJMC();
+            JsonObject jsonFile = await(() -> waitForEvaluation(RJMC));
+
+            //Set the grade and the result tree in the side window
+            csw.setSelectedTab();
+
+            if (!jsonFile.getString("compilation").trim().isEmpty()) { // Errors
+                csw.showErrors(jsonFile.getString("compilation").trim());
+            } else {
+                csw.setResultsTree(jsonFile.getString("evaluation"), (new SimpleDateFormat()).format(new Date()));
+                csw.setResultGrade(jsonFile.getString("grade"));
+                ApplicationManager.getApplication().invokeLater(csw::expandFailures);
+            }
+
+            CompSciToolsNotifier.notifyInfo(project, "Evaluation finished", "", CompSciToolsIcons.Evaluate);
+            // The evaluation counter has changed
+            project.getMessageBus().syncPublisher(EvaluationListener.TOPIC).evaluationFinished();
+        } catch (VplException | IOException | InterruptedException | SubmissionLimitException e) {
+            csw.initResults(basePath);
+            throw e;
+        }
+    }
+
+    /**
+     * Launch the evaluation and wait for its result, either notified by the execution server or polled, depending on the settings.
+     *
+     * @param RJMC Moodle client uto make remote calls to Moodle server.
+     * @return A {@code JsonObject} containing the results of the evaluation.
+     * @throws VplConnectionException    En error occurred within the interaction with the web service
+     * @throws MoodleWebServiceException In case, an error happened in the moodle client.
+     * @throws InterruptedException      Another Thread interrupted the wait and query process.
+     */
+    @NotNull
+    private JsonObject waitForEvaluation(RestJsonMoodleClient RJMC) throws VplConnectionException, MoodleWebServiceException, InterruptedException {
+        boolean useWebsocket = PersistentStorage.getInstance().recommendedRadioButtonSelected;
+        JsonObject jsonFile = new EvaluationMonitor(RJMC::callService).evaluate(useWebsocket);
+        if (!EvaluationMonitor.isFinished(jsonFile)) {
+            CompSciToolsNotifier.notifyWarning(getProject(), "The Evaluation Failed", "The API took too long to evaluate the exercise");
+        }
+        return jsonFile;
+    }
+}
@@ -15,40 +15,69 @@
 
 package clock;
 
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.StatusBar;
 import com.intellij.openapi.wm.StatusBarWidget;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import service.RestrictionsFeed;
 
-import java.util.Timer;
-import java.util.TimerTask;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.awt.event.WindowStateListener;
 
 
 /**
  * The ClockStatusBarWidget class represents a status bar widget that displays the time.
  * It implements the StatusBarWidget interface.
+ * The countdown is driven by a single tick on the event dispatch thread, which only runs while there is a time limit
+ * and the frame of the project is visible.
  *
  * @author GEILLER Valentin & GUEZI Yanis
  * @see StatusBarWidget
  */
 public class ClockStatusBarWidget implements StatusBarWidget {
 
+    /**
+     * Delay in milliseconds between two repaints of the countdown
+     */
+    private static final int TICK = 1000;
+
     /**
      * Used to retrieve the project status
      */
     private final Project project;
 
+    /**
+     * The status bar the widget is installed in
+     */
+    private StatusBar statusBar;
+
     /**
      * Timer for refreshing the window
      */
-    private Timer timer;
+    private Timer tick;
+
+    /**
+     * The window whose state is followed to pause the tick when it is minimized
+     */
+    private Window window;
 
     /**
      * The related presentation
      */
     private ClockWidgetPresentation presentation;
 
+    private final HierarchyListener showingListener = this::showingChanged;
+
+    private final WindowStateListener windowListener = e -> {
+        RestrictionsFeed.getInstance(project).checkForSuspend();
+        restrictionsUpdated();
+    };
+
     /**
      * Constructor of the ClockStatusBarWidget class
      *
@@ -56,7 +85,7 @@ public class ClockStatusBarWidget implements StatusBarWidget {
      */
     public ClockStatusBarWidget(Project project) {
         this.project = project;
-        this.timer = null;
+        this.tick = null;
         this.presentation = null;
     }
 
@@ -79,9 +108,9 @@ public class ClockStatusBarWidget implements StatusBarWidget {
     @Nullable
     @Override
     public WidgetPresentation getPresentation() {
-        //return StatusBarWidget.super.getPresentation();
         if (this.presentation == null) {
-            this.presentation = new ClockWidgetPresentation(this.project);
+            this.presentation = new ClockWidgetPresentation(this.project,
+                    () -> ApplicationManager.getApplication().invokeLater(this::restrictionsUpdated));
         }
         return this.presentation;
     }
@@ -94,15 +123,84 @@ public class ClockStatusBarWidget implements StatusBarWidget {
      */
     @Override
     public void install(@NotNull StatusBar statusBar) {
-        // We make a timer for update the presentation every second
-        // it will call the getSelectedValue method of the ClockWidgetPresentation class
-        this.timer = new Timer();
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                statusBar.updateWidget("Caseine-Clock");
+        this.statusBar = statusBar;
+        // Each tick calls the getSelectedValue method of the ClockWidgetPresentation class
+        this.tick = new Timer(TICK, e -> {
+            RestrictionsFeed.getInstance(project).checkForSuspend();
+            repaint();
+            updateTick();
+        });
+        JComponent component = statusBar.getComponent();
+        if (component != null) {
+            component.addHierarchyListener(showingListener);
+            followWindow(SwingUtilities.getWindowAncestor(component));
+        }
+        restrictionsUpdated();
+    }
+
+    /**
+     * Repaint the widget with the new time limit, and start or stop the tick.
+     */
+    private void restrictionsUpdated() {
+        repaint();
+        updateTick();
+    }
+
+    private void repaint() {
+        if (statusBar != null) {
+            statusBar.updateWidget(ID());
+        }
+    }
+
+    /**
+     * Run the tick only while the countdown is visible.
+     */
+    private void updateTick() {
+        if (tick == null) {
+            return;
+        }
+        boolean counting = presentation != null && presentation.isCountingDown();
+        if (counting && isVisible()) {
+            if (!tick.isRunning()) {
+                tick.start();
             }
-        }, 0, 1000);
+        } else {
+            tick.stop();
+        }
+    }
+
+    /**
+     * Return if the status bar is showing in a frame which is not minimized.
+     */
+    private boolean isVisible() {
+        JComponent component = statusBar == null ? null : statusBar.getComponent();
+        if (component == null || !component.isShowing()) {
+            return false;
+        }
+        return !(window instanceof Frame frame) || (frame.getExtendedState() & Frame.ICONIFIED) == 0;
+    }
+
+    private void showingChanged(HierarchyEvent e) {
+        if ((e.getChangeFlags() & (HierarchyEvent.SHOWING_CHANGED | HierarchyEvent.PARENT_CHANGED)) == 0) {
+            return;
+        }
+        followWindow(SwingUtilities.getWindowAncestor(e.getComponent()));
+        //The time may have changed while the countdown was not shown
+        RestrictionsFeed.getInstance(project).checkForSuspend();
+        restrictionsUpdated();
+    }
+
+    private void followWindow(Window newWindow) {
+        if (window == newWindow) {
+            return;
+        }
+        if (window != null) {
+            window.removeWindowStateListener(windowListener);
+        }
+        window = newWindow;
+        if (window != null) {
+            window.addWindowStateListener(windowListener);
+        }
     }
 
     /**
@@ -110,10 +208,15 @@ public class ClockStatusBarWidget implements StatusBarWidget {
      */
     @Override
     public void dispose() {
-        if (this.timer != null) {
-            this.timer.cancel();
-            this.timer = null;
+        if (this.tick != null) {
+            this.tick.stop();
+            this.tick = null;
+        }
+        if (this.statusBar != null && this.statusBar.getComponent() != null) {
+            this.statusBar.getComponent().removeHierarchyListener(showingListener);
         }
+        followWindow(null);
+        this.statusBar = null;
         if (this.presentation != null) {
             this.presentation.dispose();
             this.presentation = null;
@@ -15,21 +15,17 @@
 
 package clock;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.wm.StatusBarWidget;
 import module.CompSciToolsModuleBuilder;
 import org.jetbrains.annotations.Nullable;
-import service.ServiceGetter;
+import service.RestrictionsFeed;
+import service.SubRestrictions;
 import ui.icons.CompSciToolsIcons;
-import vplwsclient.RestJsonMoodleClient.VPLService;
-import vplwsclient.exception.MoodleWebServiceException;
-import vplwsclient.exception.VplConnectionException;
 
-import javax.json.JsonNumber;
-import javax.json.JsonValue;
 import javax.swing.*;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * The ClockWidgetPresentation class represents a presentation for the clock widget.
@@ -40,34 +36,33 @@ import java.util.TimerTask;
  */
 public class ClockWidgetPresentation implements StatusBarWidget.MultipleTextValuesPresentation {
 
-    private long timeEnd;
+    /**
+     * The time limit of the last sync, or {@code null} if there is no time limitation
+     */
+    private volatile SubRestrictions timeLimit;
     private final Project project;
-    private Timer timer;
+    private final Runnable onUpdate;
+    private Disposable subscription;
 
     /**
      * Constructor of the ClockWidgetPresentation class
-     * It will call the api every 5 minutes.
+     * It subscribes to the restrictions of the project and counts down locally between two syncs.
      *
-     * @param project the project
+     * @param project  the project
+     * @param onUpdate called, from any thread, after the time limit has changed
      */
-    public ClockWidgetPresentation(Project project) {
+    public ClockWidgetPresentation(Project project, Runnable onUpdate) {
         this.project = project;
-        this.timeEnd = -1;
+        this.onUpdate = onUpdate;
+        this.timeLimit = null;
 
         if (!CompSciToolsModuleBuilder.isCompSciToolsProject(project)) {
-            this.timer = null;
+            this.subscription = null;
             return;
         }
 
-        this.timer = new Timer();
-
-        // Call api every 5 minutes.
-        timer.schedule(new TimerTask() {
-            @Override
-            public void run() {
-                call();
-            }
-        }, 0, 5 * 60 * 1000);
+        this.subscription = Disposer.newDisposable("CompSci Tools clock");
+        RestrictionsFeed.getInstance(project).subscribe(subscription, this::update);
     }
 
     /**
@@ -80,10 +75,10 @@ public class ClockWidgetPresentation implements StatusBarWidget.MultipleTextValu
     public String getSelectedValue() {
         if (!CompSciToolsModuleBuilder.isCompSciToolsProject(project))
             return "";
-        if (timeEnd == -1) {
+        Long remainingTime = getRemainingTime();
+        if (remainingTime == null) {
             return "There is no time limitation with this exercise";
         }
-        long remainingTime = timeEnd - System.currentTimeMillis();
         if (remainingTime <= 0) {
             return "Time is up!";
         } else {
@@ -91,6 +86,26 @@ public class ClockWidgetPresentation implements StatusBarWidget.MultipleTextValu
         }
     }
 
+    /**
+     * Returns if there is a time limit which is not over yet, so the displayed time changes every second
+     *
+     * @return true if the countdown is running
+     */
+    public boolean isCountingDown() {
+        Long remainingTime = getRemainingTime();
+        return remainingTime != null && remainingTime > 0;
+    }
+
+    /**
+     * Returns the time left in milliseconds, computed locally from the last sync with the server
+     *
+     * @return the time left, or null if there is no time limitation
+     */
+    private Long getRemainingTime() {
+        SubRestrictions current = timeLimit;
+        return current == null ? null : current.getRemainingMillis();
+    }
+
     /**
      * Returns the text to display in the tooltip
      *
@@ -110,13 +125,14 @@ public class ClockWidgetPresentation implements StatusBarWidget.MultipleTextValu
     @Nullable
     @Override
     public Icon getIcon() {
-        if (timeEnd == -1) {
+        Long remainingTime = getRemainingTime();
+        if (remainingTime == null) {
             return null;
         }
-        if (timeEnd > 600 * 1000) {
+        if (remainingTime > 600 * 1000) {
             return CompSciToolsIcons.GreenTimer;
         }
-        if (timeEnd > 60 * 1000) {
+        if (remainingTime > 60 * 1000) {
             return CompSciToolsIcons.OrangeTimer;
         }
         return CompSciToolsIcons.RedTimer;
@@ -137,29 +153,19 @@ public class ClockWidgetPresentation implements StatusBarWidget.MultipleTextValu
     }
 
     /**
-     * Calls the api to get the time left
+     * Updates the time limit with the time left given by the restrictions
      *
-     * @return the time left in seconds or null if there is no time limitation
+     * @param restrictions the latest restrictions of the project
      */
-    private void call() {
-        try {
-            ServiceGetter serv = new ServiceGetter(project.getBasePath() + "/");
-            JsonValue value = serv.getRJMC().callService(VPLService.VPL_GET_SUBRESTRICTIONS).get("timeleft");
-            if (value.getValueType() == JsonValue.ValueType.NUMBER) {
-                JsonNumber jsonNumber = (JsonNumber) value;
-                timeEnd = System.currentTimeMillis() + ((jsonNumber.longValueExact() - 1) * 1000);
-            } else {
-                timeEnd = -1;
-            }
-        } catch (VplConnectionException | MoodleWebServiceException e) {
-            timeEnd = -1;
-        }
+    private void update(SubRestrictions restrictions) {
+        timeLimit = restrictions.getTimeLeft() != null ? restrictions : null;
+        onUpdate.run();
     }
 
     public void dispose() {
-        if (this.timer != null) {
-            this.timer.cancel();
-            this.timer = null;
+        if (this.subscription != null) {
+            Disposer.dispose(this.subscription);
+            this.subscription = null;
         }
     }
 }
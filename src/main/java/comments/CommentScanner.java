@@ -0,0 +1,69 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package comments;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class finds the comments left by the teacher in the text of a file.
+ * It does not depend on the editor so that it can be used on any text.
+ */
+public class CommentScanner {
+
+    private CommentScanner() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Return the marker of the teacher's comments for the given file: '###' in python file and '///' in other files.
+     *
+     * @param fileName the name of the file
+     * @return the marker, or {@code null} if the file has no extension
+     */
+    public static String getCommentMarker(String fileName) {
+        int indexPoint = fileName.lastIndexOf(".");
+        if (indexPoint == -1) {
+            return null;
+        }
+        return fileName.substring(indexPoint).equals(".py") ? "###" : "///";
+    }
+
+    /**
+     * Look after every comment starting between the given indices.
+     * A comment starts at the marker and ends at the end of its line.
+     *
+     * @param text    the text of the file
+     * @param from    the index from which to search
+     * @param to      the index before which the comments must start
+     * @param comment the marker of the comments
+     * @return the beginning and ending indices of each comment
+     */
+    public static List<int[]> findComments(String text, int from, int to, String comment) {
+        List<int[]> comments = new ArrayList<>();
+        int commentIndex = text.indexOf(comment, from);
+        while (commentIndex != -1 && commentIndex < to) {
+            int endLineIndex = text.indexOf("\n", commentIndex);
+            //If the comments is at the end of the file, maybe there is no back to the line
+            if (endLineIndex == -1) {
+                endLineIndex = text.length();
+            }
+            comments.add(new int[]{commentIndex, endLineIndex});
+            commentIndex = text.indexOf(comment, endLineIndex);
+        }
+        return comments;
+    }
+}
@@ -15,80 +15,159 @@
 
 package comments;
 
-import com.intellij.codeInsight.editorActions.TypedHandlerDelegate;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.editor.Document;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.colors.EditorColors;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.editor.event.EditorFactoryEvent;
+import com.intellij.openapi.editor.event.EditorFactoryListener;
+import com.intellij.openapi.editor.ex.MarkupModelEx;
 import com.intellij.openapi.editor.markup.HighlighterLayer;
 import com.intellij.openapi.editor.markup.HighlighterTargetArea;
+import com.intellij.openapi.editor.markup.MarkupModel;
 import com.intellij.openapi.editor.markup.RangeHighlighter;
 import com.intellij.openapi.editor.markup.TextAttributes;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiFile;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.vfs.VirtualFile;
+import module.CompSciToolsModuleBuilder;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * This class serves to highlight all the comments left by the teacher in the exercise.
  * The comments are preceded, in python file by '###' and in other files by '///'
+ * The whole file is scanned when its editor is opened, then only the lines touched by each change of the document are scanned again.
  *
  * @author Joshua Monteiller
  */
-public class Highlighter extends TypedHandlerDelegate {
+public class Highlighter implements EditorFactoryListener {
 
     /**
-     * Method called when the user typed any character
-     *
-     * @param c       the char typed by the user
-     * @param project the project where the char is typed
-     * @param editor  the editor of the file where the char is typed
-     * @param file    the file where the char is typed
-     * @return a result used in TypedHandlerDelegate
+     * Marks the highlighters created by this class, so that the highlighters of other plugins are never touched
      */
-    @Override
-    public @NotNull Result charTyped(char c, @NotNull Project project, @NotNull Editor editor, @NotNull PsiFile file) {
-        updateCommentsHighlight(editor, file);
-        return Result.CONTINUE;
-    }
+    private static final Key<Boolean> COMMENT_HIGHLIGHTER = Key.create("cstools.comment.highlighter");
+
+    /**
+     * Disposed when the editor is released, to remove the document listener
+     */
+    private static final Key<Disposable> EDITOR_DISPOSABLE = Key.create("cstools.comment.highlighter.disposable");
 
     /**
-     * This method serves to highlight all the comments of the opened file.
+     * Method called when an editor is opened. Highlight the whole file and listen to its changes.
      *
-     * @param ed the editor of the file
+     * @param event the event holding the editor
      */
-    private void updateCommentsHighlight(Editor ed, PsiFile file) {
+    @Override
+    public void editorCreated(@NotNull EditorFactoryEvent event) {
+        Editor editor = event.getEditor();
+        Project project = editor.getProject();
+        if (project == null || !CompSciToolsModuleBuilder.isCompSciToolsProject(project)) {
+            return;
+        }
+        Document document = editor.getDocument();
+        VirtualFile file = FileDocumentManager.getInstance().getFile(document);
+        if (file == null) {
+            return;
+        }
         //Detect the extension of the file, change the type of comment in case it's a Python file
-        String comment = "///";
-        String name = file.getName();
-        int indexPoint = name.lastIndexOf(".");
-        if (indexPoint != -1) {
-            String ext = name.substring(indexPoint);
-            if (ext.equals(".py")) {
-                comment = "###";
+        String comment = CommentScanner.getCommentMarker(file.getName());
+        if (comment == null) {
+            return;
+        }
+
+        updateCommentsHighlight(editor, comment, 0, document.getTextLength());
+
+        Disposable disposable = Disposer.newDisposable("CompSci Tools comments highlighter");
+        editor.putUserData(EDITOR_DISPOSABLE, disposable);
+        document.addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent e) {
+                if (!e.getDocument().isInBulkUpdate()) {
+                    updateCommentsHighlight(editor, comment, e.getOffset(), e.getOffset() + e.getNewLength());
+                }
             }
 
-            //Erase all previous highlights
-            for (RangeHighlighter highlighter : ed.getMarkupModel().getAllHighlighters()) {
-                highlighter.dispose();
+            @Override
+            public void bulkUpdateFinished(@NotNull Document document) {
+                updateCommentsHighlight(editor, comment, 0, document.getTextLength());
             }
+        }, disposable);
+    }
 
-            //Look after every possible comment in the file. Store the beginning and ending indices of the comment in an array which will be stored in another array
-            String fileText = ed.getDocument().getText();
-            int endLineIndex;
-            int commentIndex = fileText.indexOf(comment);
-            while (commentIndex != -1) {
-                endLineIndex = fileText.indexOf("\n", commentIndex);
-                //If the comments is at the end of the file, maybe there is no back to the line
-                if (endLineIndex == -1) {
-                    endLineIndex = fileText.length();
-                }
+    /**
+     * Method called when an editor is closed. Stop listening to its document.
+     *
+     * @param event the event holding the editor
+     */
+    @Override
+    public void editorReleased(@NotNull EditorFactoryEvent event) {
+        Disposable disposable = event.getEditor().getUserData(EDITOR_DISPOSABLE);
+        if (disposable != null) {
+            event.getEditor().putUserData(EDITOR_DISPOSABLE, null);
+            Disposer.dispose(disposable);
+        }
+    }
 
-                //Highlight the comments
-                TextAttributes color = ed.getColorsScheme().getAttributes(EditorColors.SEARCH_RESULT_ATTRIBUTES);
-                ed.getMarkupModel().addRangeHighlighter(commentIndex, endLineIndex, HighlighterLayer.ADDITIONAL_SYNTAX + 1, color, HighlighterTargetArea.EXACT_RANGE);
+    /**
+     * This method serves to highlight the comments of the lines between the given offsets.
+     * Only the highlighters of this class on these lines are replaced.
+     *
+     * @param ed          the editor of the file
+     * @param comment     the marker of the comments
+     * @param startOffset the offset of the beginning of the modified text
+     * @param endOffset   the offset of the end of the modified text
+     */
+    private void updateCommentsHighlight(Editor ed, String comment, int startOffset, int endOffset) {
+        if (ed.isDisposed()) {
+            return;
+        }
+        Document document = ed.getDocument();
+        int textLength = document.getTextLength();
+        int start = document.getLineStartOffset(document.getLineNumber(Math.min(startOffset, textLength)));
+        int end = document.getLineEndOffset(document.getLineNumber(Math.min(endOffset, textLength)));
 
-                commentIndex = fileText.indexOf(comment, endLineIndex);
-            }
+        //Erase the previous highlights of these lines
+        MarkupModel markupModel = ed.getMarkupModel();
+        for (RangeHighlighter highlighter : getOwnHighlighters(markupModel, start, end)) {
+            markupModel.removeHighlighter(highlighter);
+        }
+
+        //Look after every possible comment in these lines and highlight them
+        String text = document.getText(new TextRange(start, end));
+        TextAttributes color = ed.getColorsScheme().getAttributes(EditorColors.SEARCH_RESULT_ATTRIBUTES);
+        for (int[] range : CommentScanner.findComments(text, 0, text.length(), comment)) {
+            RangeHighlighter highlighter = markupModel.addRangeHighlighter(start + range[0], start + range[1], HighlighterLayer.ADDITIONAL_SYNTAX + 1, color, HighlighterTargetArea.EXACT_RANGE);
+            highlighter.putUserData(COMMENT_HIGHLIGHTER, Boolean.TRUE);
         }
+    }
 
+    /**
+     * Return the highlighters created by this class which overlap the given range.
+     */
+    private static List<RangeHighlighter> getOwnHighlighters(MarkupModel markupModel, int start, int end) {
+        List<RangeHighlighter> highlighters = new ArrayList<>();
+        if (markupModel instanceof MarkupModelEx) {
+            ((MarkupModelEx) markupModel).processRangeHighlightersOverlappingWith(start, end, highlighter -> {
+                if (highlighter.getUserData(COMMENT_HIGHLIGHTER) != null) {
+                    highlighters.add(highlighter);
+                }
+                return true;
+            });
+        } else {
+            for (RangeHighlighter highlighter : markupModel.getAllHighlighters()) {
+                if (highlighter.getUserData(COMMENT_HIGHLIGHTER) != null && highlighter.getStartOffset() <= end && highlighter.getEndOffset() >= start) {
+                    highlighters.add(highlighter);
+                }
+            }
+        }
+        return highlighters;
     }
 }
-
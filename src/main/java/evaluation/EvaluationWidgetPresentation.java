@@ -1,17 +1,15 @@
 package evaluation;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
 import com.intellij.openapi.wm.StatusBarWidget;
 import module.CompSciToolsModuleBuilder;
 import org.jetbrains.annotations.Nullable;
-import service.ServiceGetter;
+import service.RestrictionsFeed;
+import service.SubRestrictions;
 import ui.icons.CompSciToolsIcons;
-import vplwsclient.RestJsonMoodleClient.VPLService;
-import vplwsclient.exception.MoodleWebServiceException;
-import vplwsclient.exception.VplConnectionException;
 
-import javax.json.JsonObject;
-import javax.json.JsonValue;
 import javax.swing.*;
 
 /**
@@ -22,74 +20,40 @@ import javax.swing.*;
  */
 public class EvaluationWidgetPresentation implements StatusBarWidget.MultipleTextValuesPresentation {
 
-    private static Integer freeEvaluations;
-    private static Integer nbEvaluations;
-    private static String reductionByEvaluation;
+    private volatile Integer freeEvaluations;
+    private volatile Integer nbEvaluations;
+    private volatile String reductionByEvaluation;
 
     private final Project project;
 
+    private final Runnable onUpdate;
+
+    private Disposable subscription;
+
     /**
      * Constructor of the EvaluationWidgetPresentation class
+     * It subscribes to the restrictions of the project, which are fetched again after each evaluation.
      *
-     * @param project the project
+     * @param project  the project
+     * @param onUpdate called after the counter has changed, to repaint the widget
      */
-    public EvaluationWidgetPresentation(Project project) {
-        System.out.println("Project: " + project.getName());
+    public EvaluationWidgetPresentation(Project project, Runnable onUpdate) {
         this.project = project;
-        updateEvaluationCounter(project);
+        this.onUpdate = onUpdate;
+        this.subscription = Disposer.newDisposable("CompSci Tools evaluation counter");
+        RestrictionsFeed.getInstance(project).subscribe(subscription, this::update);
     }
 
     /**
-     * Call {@code mod_vpl_subrestrictions} to update the Evaluation Counter.
+     * Updates the counter with the given restrictions
      *
-     * @param project The current project.
+     * @param restrictions the latest restrictions of the project
      */
-    public static void updateEvaluationCounter(Project project) {
-        ServiceGetter serv = new ServiceGetter(project.getBasePath() + "/");
-        JsonObject values = null;
-       /* try {
-            values = serv.getRJMC().callService(VPLService.VPL_GET_SETTING);
-        } catch (VplConnectionException e) {
-            throw new RuntimeException(e);
-        } catch (MoodleWebServiceException e) {
-            throw new RuntimeException(e);
-        }
-        System.out.println(values.toString());*/
-        try {
-            values = serv.getRJMC().callService(VPLService.VPL_GET_SUBRESTRICTIONS);
-        } catch (VplConnectionException | MoodleWebServiceException e) {
-           // e.printStackTrace();
-            freeEvaluations = null;
-            nbEvaluations = null;
-            reductionByEvaluation = null;
-            return;
-        }
-      //  System.out.println(values.toString());
-      //  System.out.println("Free evaluations: " + freeEvaluations);
-
-        JsonValue freeEvaluationsValue = values.get("freeevaluations");
-        if (freeEvaluationsValue.getValueType() == JsonValue.ValueType.NUMBER) {
-            freeEvaluations = Integer.parseInt(freeEvaluationsValue.toString());
-        } else {
-            freeEvaluations = null;
-        }
-
-        JsonValue nEvaluationsValue = values.get("nevaluations");
-        if (nEvaluationsValue.getValueType() == JsonValue.ValueType.NUMBER) {
-            nbEvaluations = Integer.parseInt(nEvaluationsValue.toString());
-        } else {
-            nbEvaluations = null;
-        }
-
-        JsonValue reductionByEvaluationValue = values.get("reductionbyevaluation");
-        if (reductionByEvaluationValue.getValueType() == JsonValue.ValueType.STRING) {
-            reductionByEvaluation = reductionByEvaluationValue.toString().substring(1, reductionByEvaluationValue.toString().length() - 1);
-            if (!reductionByEvaluation.endsWith("%")) {
-                reductionByEvaluation += "pts";
-            }
-        } else {
-            reductionByEvaluation = null;
-        }
+    private void update(SubRestrictions restrictions) {
+        freeEvaluations = restrictions.getFreeEvaluations();
+        nbEvaluations = restrictions.getNbEvaluations();
+        reductionByEvaluation = restrictions.getReductionByEvaluation();
+        onUpdate.run();
     }
 
     /**
@@ -140,11 +104,18 @@ public class EvaluationWidgetPresentation implements StatusBarWidget.MultipleTex
             return null;
     }
 
-    public static int getFreeEvaluations() {
+    public int getFreeEvaluations() {
         return freeEvaluations == null ? -1 : freeEvaluations;
     }
 
-    public static int getNbEvaluations() {
+    public int getNbEvaluations() {
         return nbEvaluations == null ? -1 : nbEvaluations;
     }
+
+    public void dispose() {
+        if (this.subscription != null) {
+            Disposer.dispose(this.subscription);
+            this.subscription = null;
+        }
+    }
 }
@@ -21,12 +21,10 @@ import com.intellij.openapi.wm.StatusBarWidget;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Timer;
-import java.util.TimerTask;
-
 /**
  * The EvaluationStatusBarWidget class represents a status bar widget that displays the number of evaluations.
  * It implements the StatusBarWidget interface.
+ * The widget is only repainted when the restrictions of the project are fetched, which happens after each evaluation.
  *
  * @see StatusBarWidget
  */
@@ -38,9 +36,14 @@ public class EvalutionStatusBarWidget implements StatusBarWidget {
     private final Project project;
 
     /**
-     * Timer for refreshing the window
+     * The status bar the widget is installed in
      */
-    private Timer timer;
+    private volatile StatusBar statusBar;
+
+    /**
+     * The related presentation
+     */
+    private EvaluationWidgetPresentation presentation;
 
     /**
      * Constructor of the EvaluationStatusBarWidget class
@@ -49,7 +52,8 @@ public class EvalutionStatusBarWidget implements StatusBarWidget {
      */
     public EvalutionStatusBarWidget(Project project) {
         this.project = project;
-        this.timer = null;
+        this.statusBar = null;
+        this.presentation = null;
     }
 
     /**
@@ -71,7 +75,10 @@ public class EvalutionStatusBarWidget implements StatusBarWidget {
     @Nullable
     @Override
     public WidgetPresentation getPresentation() {
-        return new EvaluationWidgetPresentation(this.project);
+        if (this.presentation == null) {
+            this.presentation = new EvaluationWidgetPresentation(this.project, this::repaint);
+        }
+        return this.presentation;
     }
 
     /**
@@ -82,15 +89,18 @@ public class EvalutionStatusBarWidget implements StatusBarWidget {
      */
     @Override
     public void install(@NotNull StatusBar statusBar) {
-        // We make a timer for update the presentation every second
-        // it will call the getSelectedValue method of the EvaluationWidgetPresentation class
-        this.timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                statusBar.updateWidget("CompSciTools-Evaluation");
-            }
-        }, 0, 1000);
+        this.statusBar = statusBar;
+        repaint();
+    }
+
+    /**
+     * Update the widget, it will call the getSelectedValue method of the EvaluationWidgetPresentation class
+     */
+    private void repaint() {
+        StatusBar bar = this.statusBar;
+        if (bar != null) {
+            bar.updateWidget(ID());
+        }
     }
 
     /**
@@ -98,9 +108,10 @@ public class EvalutionStatusBarWidget implements StatusBarWidget {
      */
     @Override
     public void dispose() {
-        if (this.timer != null) {
-            this.timer.cancel();
-            this.timer = null;
+        this.statusBar = null;
+        if (this.presentation != null) {
+            this.presentation.dispose();
+            this.presentation = null;
         }
         StatusBarWidget.super.dispose();
     }
@@ -43,6 +43,7 @@ import notifications.CompSciToolsNotifier;
 import org.jetbrains.annotations.NotNull;
 import service.PersistentStorage;
 import service.ServiceGetter;
+import service.VplProjectService;
 import service.WebserviceClientFactory;
 import vplwsclient.RestJsonMoodleClient.VPLService;
 import vplwsclient.exception.MoodleWebServiceException;
@@ -99,7 +100,7 @@ public class CompSciToolsModuleBuilder extends com.intellij.ide.util.projectWiza
         createVplignoreFile(project);
 
         //"Download" the required files for the exercise
-        ServiceGetter servGet = new ServiceGetter(path);
+        ServiceGetter servGet = VplProjectService.getInstance(project).getServiceGetter();
         if (!servGet.hasFailed()) {
             try {
                 writeFilesToDisk(state.initCheckButtonSelected ? servGet.getReqFiles() : servGet.getFiles(), path);
@@ -33,22 +33,21 @@ public abstract class CompSciToolsNotifier {
      * @param actions The actions offered by the notification (open settings for example).
      */
     private static void notify(@Nullable Project project, @Nullable String title, @Nullable String body, NotificationType type, @Nullable Icon icon, @Nullable NotificationAction[] actions) {
-        new Thread(() -> {
-            Notification notification = NotificationGroupManager.getInstance()
-                    .getNotificationGroup("CompSci Tools Notification Group")
-                    .createNotification("<html>" + ((title == null) ? "" : title.replace("\n", "<br>")),
-                            (body == null) ? "" : body.replace("\n", "<br>") + "</html>",
-                            type);
-            if (actions != null) {
-                for (AnAction action : actions) {
-                    if (action != null)
-                        notification.addAction(action);
-                }
+        //Notifications can be sent from any thread, the balloon is shown later on the EDT
+        Notification notification = NotificationGroupManager.getInstance()
+                .getNotificationGroup("CompSci Tools Notification Group")
+                .createNotification("<html>" + ((title == null) ? "" : title.replace("\n", "<br>")),
+                        (body == null) ? "" : body.replace("\n", "<br>") + "</html>",
+                        type);
+        if (actions != null) {
+            for (AnAction action : actions) {
+                if (action != null)
+                    notification.addAction(action);
             }
-            if (icon != null)
-                notification.setIcon(icon);
-            notification.notify(project);
-        }).start();
+        }
+        if (icon != null)
+            notification.setIcon(icon);
+        notification.notify(project);
     }
 
     /* -- Error notification -- */
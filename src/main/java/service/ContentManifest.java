@@ -0,0 +1,237 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import module.CompSciToolsModuleBuilder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+/**
+ * This class stores the content hashes of the files that were last saved on the VPL.
+ * The manifest is kept next to the special file, in the project's root, and allows push and evaluate to skip the
+ * VPL_SAVE round-trip when nothing has changed since the last push.
+ */
+public class ContentManifest {
+
+    public static final String MANIFEST_FILE_NAME = CompSciToolsModuleBuilder.SPECIAL_FILE_NAME + ".manifest";
+
+    private static final String VPL_ID_KEY = "#vplid";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Size in bytes of the blocks read from the files to hash them
+     */
+    public static final int BLOCK_SIZE = 256 * 1024;
+
+    /**
+     * The VPL ID the hashes were saved for
+     */
+    private final String vplID;
+
+    /**
+     * Hash of each file, indexed by its name relative to the source directory
+     */
+    private final Map<String, String> hashes;
+
+    public ContentManifest(String vplID, Map<String, String> hashes) {
+        this.vplID = vplID;
+        this.hashes = new TreeMap<>(hashes);
+    }
+
+    /**
+     * Return the VPL ID the hashes were saved for.
+     */
+    public String getVplID() {
+        return vplID;
+    }
+
+    /**
+     * Return the hash of each file, indexed by its name relative to the source directory.
+     */
+    public Map<String, String> getHashes() {
+        return Collections.unmodifiableMap(hashes);
+    }
+
+    /**
+     * Read the manifest stored in the project's root.
+     *
+     * @param path the path of the project's root
+     * @return the stored manifest, or an empty manifest if there is none or if it cannot be read
+     */
+    public static ContentManifest load(String path) {
+        File file = new File(path + MANIFEST_FILE_NAME);
+        Properties properties = new Properties();
+        if (file.exists()) {
+            try (InputStream is = new FileInputStream(file)) {
+                properties.load(is);
+            } catch (IOException | IllegalArgumentException e) {
+                properties.clear();
+            }
+        }
+        String vplID = properties.getProperty(VPL_ID_KEY, "");
+        properties.remove(VPL_ID_KEY);
+        Map<String, String> hashes = new TreeMap<>();
+        for (String name : properties.stringPropertyNames()) {
+            hashes.put(name, properties.getProperty(name));
+        }
+        return new ContentManifest(vplID, hashes);
+    }
+
+    /**
+     * Write this manifest in the project's root, replacing the previous one.
+     *
+     * @param path the path of the project's root
+     * @throws IOException If the manifest cannot be written
+     */
+    public void save(String path) throws IOException {
+        Properties properties = new Properties();
+        properties.putAll(hashes);
+        properties.setProperty(VPL_ID_KEY, vplID);
+        try (OutputStream os = new FileOutputStream(path + MANIFEST_FILE_NAME)) {
+            properties.store(os, "Content hashes of the files last saved on the VPL. Do not edit.");
+        }
+    }
+
+    /**
+     * Delete the manifest of the project, so the next push will always reach the VPL.
+     *
+     * @param path the path of the project's root
+     */
+    public static void invalidate(String path) {
+        new File(path + MANIFEST_FILE_NAME).delete();
+    }
+
+    /**
+     * Return if this manifest describes exactly the given files for the given VPL.
+     *
+     * @param vplID  the current VPL ID of the project
+     * @param hashes the hash of each file, indexed by its name
+     * @return true if nothing has been added, removed or modified since the manifest was saved
+     */
+    public boolean matches(String vplID, Map<String, String> hashes) {
+        return this.vplID.equals(vplID) && this.hashes.equals(hashes);
+    }
+
+    /**
+     * Compute the hash of each given file.
+     * The files are read and hashed concurrently, on all the available cores, by blocks of {@link #BLOCK_SIZE} bytes.
+     * When called from a background task, the progress is reported to its indicator and the hashing stops if the task is cancelled.
+     *
+     * @param files the files to hash
+     * @param root  the directory the names are relative to
+     * @return the hash of each file, indexed by its name relative to the root, with '/' as separator
+     * @throws IOException If a file cannot be read
+     */
+    public static Map<String, String> hashFiles(List<File> files, String root) throws IOException {
+        String prefix = root.replace(File.separator, "/") + "/";
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        String[] hashes = new String[files.size()];
+        AtomicInteger done = new AtomicInteger();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        List<Integer> indices = IntStream.range(0, files.size()).boxed().toList();
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(indices, indicator, i -> {
+            try {
+                hashes[i] = hash(files.get(i));
+            } catch (IOException e) {
+                failure.compareAndSet(null, e);
+                return false;
+            }
+            if (indicator != null) {
+                indicator.setFraction((double) done.incrementAndGet() / files.size());
+            }
+            return true;
+        });
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        ProgressManager.checkCanceled();
+
+        //The results are gathered in the order of the files, whatever the order they were computed in
+        Map<String, String> result = new TreeMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            String name = files.get(i).getPath().replace(File.separator, "/").replace(prefix, "");
+            result.put(name, hashes[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Return the SHA-256 of the content of a file, as a hexadecimal string.
+     * The file is read by blocks, so large files are never held in memory. The block is a heap array sized to the
+     * file, so the small files of a project do not each take a full block and nothing outlives the call.
+     *
+     * @param file the file to hash
+     * @return the hexadecimal hash
+     * @throws IOException If the file cannot be read
+     */
+    public static String hash(File file) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] block = new byte[(int) Math.max(1, Math.min(BLOCK_SIZE, file.length()))];
+        try (InputStream is = new FileInputStream(file)) {
+            int read;
+            while ((read = is.read(block)) >= 0) {
+                digest.update(block, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Return the SHA-256 of the content given in argument, as a hexadecimal string.
+     *
+     * @param content the bytes to hash
+     * @return the hexadecimal hash
+     */
+    public static String hash(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.util.io.FileUtil;
+import vplwsclient.exception.MoodleWebServiceException;
+
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The files of a VPL_OPEN answer, stored in temporary files.
+ * The answer is parsed as a stream: each entry of its {@code files} array is decoded and written to its own temporary
+ * file as soon as it has been read, so only one file at a time is held in memory. The temporary files are moved to
+ * the project when they are synchronized, see {@link FileSync}, and the remaining ones are deleted on {@link #close()}.
+ */
+public final class DownloadedFiles implements AutoCloseable {
+
+    private final Path directory;
+    private final List<FileSync.RemoteFile> files = new ArrayList<>();
+
+    private DownloadedFiles(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Read the answer of VPL_OPEN.
+     *
+     * @param answer the JSON answer of the web service
+     * @return the downloaded files, to be closed once they are synchronized
+     * @throws IOException               If the answer cannot be read or a file cannot be stored
+     * @throws MoodleWebServiceException If the web service answered with an exception
+     */
+    public static DownloadedFiles read(InputStream answer) throws IOException, MoodleWebServiceException {
+        DownloadedFiles downloaded = new DownloadedFiles(Files.createTempDirectory("compsci-tools-open"));
+        try (JsonParser parser = Json.createParser(new InputStreamReader(answer, StandardCharsets.UTF_8))) {
+            downloaded.parse(parser);
+        } catch (IOException | MoodleWebServiceException | RuntimeException e) {
+            downloaded.close();
+            throw e;
+        }
+        return downloaded;
+    }
+
+    /**
+     * Wrap files already in memory, when the answer could not be read as a stream.
+     *
+     * @param files the files of the VPL
+     * @return the files, with nothing to delete on close
+     * @throws IOException If the temporary directory cannot be created
+     */
+    public static DownloadedFiles of(List<FileSync.RemoteFile> files) throws IOException {
+        DownloadedFiles downloaded = new DownloadedFiles(Files.createTempDirectory("compsci-tools-open"));
+        downloaded.files.addAll(files);
+        return downloaded;
+    }
+
+    /**
+     * Return the downloaded files, in the order of the answer.
+     */
+    public List<FileSync.RemoteFile> getFiles() {
+        return Collections.unmodifiableList(files);
+    }
+
+    /**
+     * Delete the temporary files which have not been moved to the project.
+     */
+    @Override
+    public void close() {
+        FileUtil.delete(directory.toFile());
+    }
+
+    private void parse(JsonParser parser) throws IOException, MoodleWebServiceException {
+        if (!parser.hasNext() || parser.next() != JsonParser.Event.START_OBJECT) {
+            //Functions returning nothing answer null
+            return;
+        }
+        String exception = null;
+        String message = null;
+        String errorCode = "";
+        while (parser.hasNext()) {
+            JsonParser.Event event = parser.next();
+            if (event == JsonParser.Event.END_OBJECT) {
+                break;
+            }
+            String key = parser.getString();
+            event = parser.next();
+            if (key.equals("files") && event == JsonParser.Event.START_ARRAY) {
+                parseFiles(parser);
+            } else if (key.equals("exception") && event == JsonParser.Event.VALUE_STRING) {
+                exception = parser.getString();
+            } else if (key.equals("message") && event == JsonParser.Event.VALUE_STRING) {
+                message = parser.getString();
+            } else if (key.equals("errorcode") && event == JsonParser.Event.VALUE_STRING) {
+                errorCode = parser.getString();
+            } else {
+                skip(parser, event);
+            }
+        }
+        if (exception != null) {
+            throw new MoodleErrorException(message != null ? message : exception, errorCode);
+        }
+    }
+
+    private void parseFiles(JsonParser parser) throws IOException {
+        while (parser.hasNext()) {
+            JsonParser.Event event = parser.next();
+            if (event == JsonParser.Event.END_ARRAY) {
+                return;
+            }
+            if (event != JsonParser.Event.START_OBJECT) {
+                skip(parser, event);
+                continue;
+            }
+            String name = null;
+            String data = "";
+            boolean base64 = false;
+            while ((event = parser.next()) != JsonParser.Event.END_OBJECT) {
+                String key = parser.getString();
+                event = parser.next();
+                switch (key) {
+                    case "name" -> name = event == JsonParser.Event.VALUE_STRING ? parser.getString() : null;
+                    case "data" -> data = event == JsonParser.Event.VALUE_STRING ? parser.getString() : "";
+                    case "encoding" -> base64 = (event == JsonParser.Event.VALUE_NUMBER || event == JsonParser.Event.VALUE_STRING)
+                            && parser.getString().equals("1");
+                    default -> skip(parser, event);
+                }
+            }
+            if (name != null) {
+                byte[] content = base64 ? Base64.getMimeDecoder().decode(data) : data.getBytes(StandardCharsets.UTF_8);
+                files.add(store(name, content));
+            }
+        }
+    }
+
+    /**
+     * Write the content of a file in a temporary file.
+     */
+    private FileSync.RemoteFile store(String name, byte[] content) throws IOException {
+        Path temporary = directory.resolve(Integer.toString(files.size()));
+        Files.write(temporary, content);
+        String hash = ContentManifest.hash(content);
+        return new FileSync.RemoteFile() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getHash() {
+                return hash;
+            }
+
+            @Override
+            public void writeTo(File target) throws IOException {
+                Files.move(temporary, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        };
+    }
+
+    /**
+     * Skip the value which starts with the given event.
+     */
+    private static void skip(JsonParser parser, JsonParser.Event event) {
+        if (event != JsonParser.Event.START_OBJECT && event != JsonParser.Event.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            event = parser.next();
+            if (event == JsonParser.Event.START_OBJECT || event == JsonParser.Event.START_ARRAY) {
+                depth++;
+            } else if (event == JsonParser.Event.END_OBJECT || event == JsonParser.Event.END_ARRAY) {
+                depth--;
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.application.PathManager;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * This class keeps on disk the last evaluation returned by VPL_GET_LAST_EVALUATION for each VPL, in the system
+ * directory of the IDE. The side window shows it at once, before the web service has answered, and only shows the
+ * answer of the web service if it is another submission.
+ */
+public class EvaluationCache {
+
+    private EvaluationCache() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Read the last evaluation stored for a VPL.
+     *
+     * @param vplID the ID of the VPL
+     * @return the stored evaluation, or {@code null} if there is none or if it cannot be read
+     */
+    public static JsonObject load(String vplID) {
+        Path file = getFile(vplID);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             JsonReader jsonReader = Json.createReader(reader)) {
+            return jsonReader.readObject();
+        } catch (IOException | JsonException | IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Store the last evaluation of a VPL, replacing the previous one.
+     * The cache is only an optimization, so a failure to write it is ignored.
+     *
+     * @param vplID      the ID of the VPL
+     * @param evaluation the response of VPL_GET_LAST_EVALUATION
+     */
+    public static void store(String vplID, JsonObject evaluation) {
+        Path file = getFile(vplID);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8);
+                 JsonWriter jsonWriter = Json.createWriter(writer)) {
+                jsonWriter.writeObject(evaluation);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | JsonException e) {
+            //The evaluation will be fetched again next time
+        }
+    }
+
+    /**
+     * Return if the evaluation returned by the web service is another submission than the stored one.
+     *
+     * @param stored the stored evaluation, may be {@code null}
+     * @param fetched the evaluation returned by the web service
+     * @return true if the fetched evaluation must be shown instead of the stored one
+     */
+    public static boolean isOtherSubmission(JsonObject stored, JsonObject fetched) {
+        if (stored == null) {
+            return true;
+        }
+        long storedTime = getTimeSubmitted(stored);
+        long fetchedTime = getTimeSubmitted(fetched);
+        if (storedTime == 0 && fetchedTime == 0) {
+            //Without a submission time, only the content tells the submissions apart
+            return !stored.equals(fetched);
+        }
+        return storedTime != fetchedTime;
+    }
+
+    /**
+     * Return the submission time of an evaluation, in seconds, or 0 if it is unknown.
+     */
+    public static long getTimeSubmitted(JsonObject evaluation) {
+        JsonValue value = evaluation.get("timesubmitted");
+        if (value != null && value.getValueType() == JsonValue.ValueType.NUMBER) {
+            return ((JsonNumber) value).longValue();
+        }
+        return 0;
+    }
+
+    private static Path getFile(String vplID) {
+        String name = vplID.replaceAll("[^A-Za-z0-9_-]", "_") + ".json";
+        return Paths.get(PathManager.getSystemPath(), "compsci-tools", "evaluations", name);
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.util.messages.Topic;
+
+/**
+ * Listener of the end of the evaluations of a project.
+ * The events are published on the message bus of the project.
+ */
+public interface EvaluationListener {
+
+    Topic<EvaluationListener> TOPIC = Topic.create("CompSci Tools evaluation finished", EvaluationListener.class);
+
+    /**
+     * Called once the results of an evaluation have been received, the number of evaluations has then changed.
+     */
+    void evaluationFinished();
+}
@@ -0,0 +1,245 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import vplwsclient.RestJsonMoodleClient.VPLService;
+import vplwsclient.exception.MoodleWebServiceException;
+import vplwsclient.exception.VplConnectionException;
+
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * This class launches an evaluation and waits for its result.
+ * The evaluation is requested once. Then, either the execution server notifies its end through the monitor websocket,
+ * or the result is polled with an increasing delay. The websocket has its own short timeouts, and the last
+ * {@link #POLL_WINDOW} of the wait is always left to the polling.
+ */
+public class EvaluationMonitor {
+
+    /**
+     * A call to the web service, usually {@code RestJsonMoodleClient::callService}
+     */
+    @FunctionalInterface
+    public interface ServiceCall {
+        JsonObject call(VPLService service) throws VplConnectionException, MoodleWebServiceException;
+    }
+
+    /**
+     * Message given in the compilation field while the evaluation is not finished
+     */
+    public static final String NOT_FINISHED = "The compilation process did not generate an executable nor error message.";
+
+    /**
+     * Maximum time in milliseconds to wait for the end of an evaluation
+     */
+    public static final long MAX_WAIT = 60 * 1000;
+
+    /**
+     * Maximum time in milliseconds to open the monitor websocket, and to wait between two of its messages
+     */
+    public static final long MONITOR_TIMEOUT = 10 * 1000;
+
+    /**
+     * Time in milliseconds, at the end of {@link #MAX_WAIT}, always left to the polling of the result
+     */
+    public static final long POLL_WINDOW = 15 * 1000;
+
+    private static final long FIRST_POLL_DELAY = 250;
+    private static final long MAX_POLL_DELAY = 2000;
+
+    private final ServiceCall service;
+    private final HttpClient httpClient;
+    private final long maxWait;
+    private final long monitorTimeout;
+    private final long pollWindow;
+
+    public EvaluationMonitor(ServiceCall service) {
+        //The websocket is opened by the client shared with the web service calls, no thread pool is created per evaluation
+        this(service, HttpMoodleTransport.SHARED.getClient(), MAX_WAIT);
+    }
+
+    public EvaluationMonitor(ServiceCall service, HttpClient httpClient, long maxWait) {
+        this(service, httpClient, maxWait, MONITOR_TIMEOUT, POLL_WINDOW);
+    }
+
+    /**
+     * @param monitorTimeout the maximum time in milliseconds to open the monitor websocket, and between two of its messages
+     * @param pollWindow     the time in milliseconds, at the end of maxWait, always left to the polling of the result
+     */
+    EvaluationMonitor(ServiceCall service, HttpClient httpClient, long maxWait, long monitorTimeout, long pollWindow) {
+        this.service = service;
+        this.httpClient = httpClient;
+        this.maxWait = maxWait;
+        this.monitorTimeout = monitorTimeout;
+        this.pollWindow = Math.min(pollWindow, maxWait);
+    }
+
+    /**
+     * Launch an evaluation and wait for its result.
+     *
+     * @param useWebsocket {@code true} to wait for the notification of the execution server, {@code false} to only poll the result
+     * @return A {@code JsonObject} containing the results of the evaluation, see {@link #isFinished(JsonObject)}.
+     * @throws VplConnectionException    En error occurred within the interaction with the web service
+     * @throws MoodleWebServiceException In case, an error happened in the moodle client.
+     * @throws InterruptedException      Another Thread interrupted the wait and query process.
+     */
+    public JsonObject evaluate(boolean useWebsocket) throws VplConnectionException, MoodleWebServiceException, InterruptedException {
+        long deadline = System.currentTimeMillis() + maxWait;
+        JsonObject evaluation = service.call(VPLService.VPL_EVALUATE);
+
+        if (useWebsocket) {
+            String monitorURL = getMonitorURL(evaluation);
+            if (monitorURL != null) {
+                // If the websocket fails or stays silent, the polling below takes over before the deadline
+                waitForMonitor(monitorURL, deadline - pollWindow);
+            }
+        }
+
+        long delay = FIRST_POLL_DELAY;
+        JsonObject result = service.call(VPLService.VPL_GET_RESULT);
+        while (!isFinished(result) && System.currentTimeMillis() + delay < deadline) {
+            Thread.sleep(delay);
+            delay = Math.min(delay * 2, MAX_POLL_DELAY);
+            result = service.call(VPLService.VPL_GET_RESULT);
+        }
+        return result;
+    }
+
+    /**
+     * Return if the given result is the one of a finished evaluation.
+     *
+     * @param result the response of VPL_GET_RESULT
+     * @return {@code true} if the evaluation is finished
+     */
+    public static boolean isFinished(JsonObject result) {
+        return result.containsKey("compilation") && !result.getString("compilation").trim().equals(NOT_FINISHED);
+    }
+
+    private static String getMonitorURL(JsonObject evaluation) {
+        for (String key : new String[]{"smonitorURL", "monitorURL"}) {
+            JsonValue value = evaluation.get(key);
+            if (value != null && value.getValueType() == JsonValue.ValueType.STRING && !evaluation.getString(key).isEmpty()) {
+                return evaluation.getString(key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Listen to the monitor of the execution server until it announces that the result can be retrieved.
+     * The wait is abandoned if the websocket cannot be opened within {@link #MONITOR_TIMEOUT}, or if it stays silent
+     * for as long.
+     *
+     * @param monitorURL the URL of the monitor websocket
+     * @param deadline   the time in milliseconds after which the wait is abandoned
+     * @return {@code true} if the end of the evaluation was notified, {@code false} if the websocket failed or timed out
+     * @throws InterruptedException Another Thread interrupted the wait.
+     */
+    boolean waitForMonitor(String monitorURL, long deadline) throws InterruptedException {
+        CompletableFuture<Boolean> finished = new CompletableFuture<>();
+        MonitorListener listener = new MonitorListener(finished);
+        WebSocket webSocket = null;
+        try {
+            long connectTimeout = Math.min(monitorTimeout, deadline - System.currentTimeMillis());
+            if (connectTimeout <= 0) {
+                return false;
+            }
+            webSocket = httpClient.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofMillis(connectTimeout))
+                    .buildAsync(URI.create(monitorURL), listener)
+                    .get(connectTimeout, TimeUnit.MILLISECONDS);
+            while (true) {
+                long now = System.currentTimeMillis();
+                long until = Math.min(deadline, listener.lastMessage + monitorTimeout);
+                if (now >= until) {
+                    return false;
+                }
+                try {
+                    return finished.get(until - now, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    //A message may have arrived meanwhile, which extends the wait
+                }
+            }
+        } catch (ExecutionException | TimeoutException | IllegalArgumentException e) {
+            return false;
+        } finally {
+            if (webSocket != null) {
+                webSocket.abort();
+            }
+        }
+    }
+
+    /**
+     * Listener of the monitor websocket. The execution server sends messages such as "compilation:", "message:",
+     * "retrieve:" when the result is available and "close:" when the execution ends.
+     */
+    private static class MonitorListener implements WebSocket.Listener {
+
+        private final CompletableFuture<Boolean> finished;
+        private final StringBuilder message = new StringBuilder();
+
+        /**
+         * Time in milliseconds of the opening of the websocket or of its last message
+         */
+        private volatile long lastMessage = System.currentTimeMillis();
+
+        MonitorListener(CompletableFuture<Boolean> finished) {
+            this.finished = finished;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            lastMessage = System.currentTimeMillis();
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            lastMessage = System.currentTimeMillis();
+            message.append(data);
+            if (last) {
+                String text = message.toString();
+                message.setLength(0);
+                if (text.startsWith("retrieve:") || text.startsWith("close:")) {
+                    finished.complete(true);
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            finished.complete(true);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            finished.complete(false);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import module.CompSciToolsModuleBuilder;
+import vplwsclient.VplFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This class synchronizes the project's directory with the files of the VPL.
+ * Only the files whose content differs from the remote one are written, only the files which are no longer on the
+ * VPL are deleted, and the virtual file system is refreshed once for all the modified files.
+ */
+public class FileSync {
+
+    /**
+     * A file of the VPL to be written in the source directory of the project.
+     */
+    public interface RemoteFile {
+
+        /**
+         * Return the name of the file, relative to the source directory
+         */
+        String getName();
+
+        /**
+         * Return the hash of the content of the file, see {@link ContentManifest#hash(byte[])}
+         */
+        String getHash() throws IOException;
+
+        /**
+         * Write the content of the file to the given location
+         */
+        void writeTo(File target) throws IOException;
+    }
+
+    private FileSync() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    /**
+     * Wrap a VplFile so that it can be synchronized.
+     *
+     * @param vplFile the file given by the web service
+     * @return the RemoteFile representing it
+     * @throws IOException If the content of the file cannot be decoded
+     */
+    public static RemoteFile of(VplFile vplFile) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        vplFile.write(content);
+        byte[] bytes = content.toByteArray();
+        String hash = ContentManifest.hash(bytes);
+        String name = vplFile.getFullName();
+        return new RemoteFile() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getHash() {
+                return hash;
+            }
+
+            @Override
+            public void writeTo(File target) throws IOException {
+                Files.write(target.toPath(), bytes);
+            }
+        };
+    }
+
+    /**
+     * Make the project's directory match the given remote files.
+     * When called from a background task, the progress is reported to its indicator and the writing stops if the task
+     * is cancelled. The files already written are then refreshed, so the next synchronization starts from them.
+     *
+     * @param files    the files of the VPL
+     * @param path     the path of the project's root
+     * @param excluded the compiled patterns of the files that must not be touched
+     * @return the hash of each file now on disk, indexed by its name relative to the source directory
+     * @throws IOException If an error occurred during the interaction with local files.
+     */
+    public static Map<String, String> synchronize(List<RemoteFile> files, String path, IgnoreMatcher excluded) throws IOException {
+        File root = new File(path);
+        File sourceDir = new File(root, CompSciToolsModuleBuilder.SOURCE_DIRECTORY);
+        Set<File> modified = new LinkedHashSet<>();
+        if (!sourceDir.exists() && sourceDir.mkdirs()) {
+            modified.add(sourceDir);
+        }
+
+        // Write the files whose content differs from the remote one
+        Map<String, String> hashes = new TreeMap<>();
+        Set<File> expected = new HashSet<>();
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                ProgressManager.checkCanceled();
+                if (indicator != null) {
+                    indicator.setFraction((double) i / files.size());
+                }
+                writeIfModified(files.get(i), sourceDir, excluded, hashes, expected, modified);
+            }
+
+            // Delete the files which are not on the VPL anymore
+            for (File file : excluded.listIncludedFiles(root)) {
+                if (!expected.contains(file) && file.delete()) {
+                    modified.add(file);
+                    deleteEmptyParents(file.getParentFile(), root, sourceDir, modified);
+                }
+            }
+        } finally {
+            refresh(modified);
+        }
+        return hashes;
+    }
+
+    /**
+     * Write a remote file unless it is excluded or its content is already on disk.
+     */
+    private static void writeIfModified(RemoteFile remote, File sourceDir, IgnoreMatcher excluded, Map<String, String> hashes,
+                                        Set<File> expected, Set<File> modified) throws IOException {
+        // Do not import files registered in .vplignore
+        if (excluded.isExcluded(remote.getName()))
+            return;
+
+        File file = new File(sourceDir, remote.getName().replace('/', File.separatorChar));
+        String hash = remote.getHash();
+        expected.add(file);
+        hashes.put(remote.getName(), hash);
+        if (file.isFile() && hash.equals(ContentManifest.hash(file))) {
+            return;
+        }
+
+        File directory = file.getParentFile();
+        if (!directory.exists()) {
+            directory.mkdirs();
+            modified.add(directory);
+        }
+        remote.writeTo(file);
+        modified.add(file);
+    }
+
+    /**
+     * Delete the directories left empty by the deletion of a file, up to the source directory.
+     */
+    private static void deleteEmptyParents(File directory, File root, File sourceDir, Set<File> modified) {
+        while (directory != null && !directory.equals(root) && !directory.equals(sourceDir)
+                && listFiles(directory).length == 0 && directory.delete()) {
+            modified.add(directory);
+            directory = directory.getParentFile();
+        }
+    }
+
+    private static File[] listFiles(File directory) {
+        File[] files = directory.listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Refresh, in a single asynchronous batch, the modified files and their directories.
+     */
+    private static void refresh(Set<File> modified) {
+        if (modified.isEmpty()) {
+            return;
+        }
+        Set<File> toRefresh = new LinkedHashSet<>(modified);
+        for (File file : modified) {
+            if (file.getParentFile() != null) {
+                toRefresh.add(file.getParentFile());
+            }
+        }
+        LocalFileSystem.getInstance().refreshIoFiles(toRefresh, true, false, null);
+    }
+}
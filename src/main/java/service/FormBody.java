@@ -0,0 +1,313 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code application/x-www-form-urlencoded} body of a request to the web service.
+ * The content of the files is not held in memory: each file is read and encoded straight into the body while the
+ * request is sent, with buffers of {@link #BUFFER_SIZE} bytes, so the memory used does not depend on the size of the
+ * files. Text files are sent as is, binary files are sent in base 64.
+ */
+public final class FormBody {
+
+    /**
+     * Size in bytes of the blocks read from the files
+     */
+    public static final int BUFFER_SIZE = 3 * 4096;
+
+    private interface Part {
+        InputStream open() throws IOException;
+    }
+
+    private final List<Part> parts = new ArrayList<>();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * Add a parameter.
+     *
+     * @param key   the name of the parameter
+     * @param value the value of the parameter
+     * @return this body
+     */
+    public FormBody add(String key, String value) {
+        byte[] encoded = (separator() + encode(key) + "=" + encode(value)).getBytes(StandardCharsets.US_ASCII);
+        parts.add(() -> new ByteArrayInputStream(encoded));
+        return this;
+    }
+
+    /**
+     * Add a file, as the parameters {@code <prefix>[name]}, {@code <prefix>[data]} and, for a binary file,
+     * {@code <prefix>[encoding]}.
+     *
+     * @param prefix the prefix of the parameters, such as {@code files[0]}
+     * @param name   the name of the file on the VPL
+     * @param file   the file to read when the body is sent
+     * @return this body
+     * @throws IOException If the file cannot be read
+     */
+    public FormBody addFile(String prefix, String name, File file) throws IOException {
+        boolean binary = !isUtf8(file);
+        add(prefix + "[name]", name);
+        if (binary) {
+            add(prefix + "[encoding]", "1");
+        }
+        byte[] key = (separator() + encode(prefix + "[data]") + "=").getBytes(StandardCharsets.US_ASCII);
+        parts.add(() -> new ByteArrayInputStream(key));
+        parts.add(() -> {
+            InputStream content = Files.newInputStream(file.toPath());
+            return new PercentEncodingInputStream(binary ? new Base64InputStream(content) : content);
+        });
+        return this;
+    }
+
+    /**
+     * Return a new stream of the encoded body. The files are opened one after the other, while the stream is read.
+     */
+    public InputStream open() {
+        bytesSent.set(0);
+        return new PartsInputStream(parts.iterator());
+    }
+
+    /**
+     * Return the number of bytes of the body read from the last stream.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    private String separator() {
+        return parts.isEmpty() ? "" : "&";
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Return if the content of the file is valid UTF-8, reading it by blocks.
+     */
+    static boolean isUtf8(File file) throws IOException {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+        ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+        CharBuffer out = CharBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            boolean end = false;
+            while (!end) {
+                end = channel.read(in) < 0;
+                in.flip();
+                CoderResult result = decoder.decode(in, out, end);
+                if (result.isError()) {
+                    return false;
+                }
+                out.clear();
+                in.compact();
+            }
+            return !decoder.flush(out).isError();
+        }
+    }
+
+    /**
+     * A stream reading the parts of the body one after the other, counting the bytes read.
+     */
+    private final class PartsInputStream extends InputStream {
+
+        private final Iterator<Part> parts;
+        private InputStream current;
+
+        PartsInputStream(Iterator<Part> parts) {
+            this.parts = parts;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                if (current == null) {
+                    if (!parts.hasNext()) {
+                        return -1;
+                    }
+                    current = parts.next().open();
+                }
+                int n = current.read(b, off, len);
+                if (n >= 0) {
+                    bytesSent.addAndGet(n);
+                    return n;
+                }
+                current.close();
+                current = null;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+                current = null;
+            }
+        }
+    }
+
+    /**
+     * A stream percent-encoding the bytes of another stream, as {@link URLEncoder} does for UTF-8 text.
+     */
+    private static final class PercentEncodingInputStream extends FilterInputStream {
+
+        private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+        private final byte[] raw = new byte[BUFFER_SIZE];
+        private final byte[] encoded = new byte[3 * BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        PercentEncodingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return encoded[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            int n = Math.min(len, limit - position);
+            System.arraycopy(encoded, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        private boolean fill() throws IOException {
+            int n;
+            do {
+                n = in.read(raw);
+            } while (n == 0);
+            if (n < 0) {
+                return false;
+            }
+            limit = 0;
+            for (int i = 0; i < n; i++) {
+                int c = raw[i] & 0xFF;
+                if (c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '.' || c == '-' || c == '*' || c == '_') {
+                    encoded[limit++] = (byte) c;
+                } else if (c == ' ') {
+                    encoded[limit++] = '+';
+                } else {
+                    encoded[limit++] = '%';
+                    encoded[limit++] = HEX[c >> 4];
+                    encoded[limit++] = HEX[c & 0xF];
+                }
+            }
+            position = 0;
+            return true;
+        }
+    }
+
+    /**
+     * A stream encoding the bytes of another stream in base 64, by blocks whose size is a multiple of 3.
+     */
+    private static final class Base64InputStream extends FilterInputStream {
+
+        private final byte[] raw = new byte[BUFFER_SIZE];
+        private final byte[] encoded = new byte[BUFFER_SIZE / 3 * 4];
+        private int position;
+        private int limit;
+
+        Base64InputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            return encoded[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == limit && !fill()) {
+                return -1;
+            }
+            int n = Math.min(len, limit - position);
+            System.arraycopy(encoded, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return limit - position;
+        }
+
+        private boolean fill() throws IOException {
+            //Only the last block may be shorter, so the padding is only at the end
+            int n = in.readNBytes(raw, 0, raw.length);
+            if (n == 0) {
+                return false;
+            }
+            limit = Base64.getEncoder().encode(n == raw.length ? raw : Arrays.copyOf(raw, n), encoded);
+            position = 0;
+            return true;
+        }
+    }
+}
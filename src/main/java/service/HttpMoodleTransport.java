@@ -0,0 +1,201 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import vplwsclient.exception.MoodleWebServiceException;
+import vplwsclient.exception.VplConnectionException;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonStructure;
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * This transport sends every request of the plugin through one shared {@link HttpClient}.
+ * The connections are kept alive and reused between the calls, so the TLS handshake is made once for a whole
+ * INFO/OPEN/SAVE/EVALUATE/GET_RESULT sequence instead of once per call. HTTP/2 is used when the server supports it
+ * and the answers are requested gzip-compressed. The answers can also be read while they are received, see
+ * {@link #post(String, FormBody, AnswerReader)}.
+ */
+public final class HttpMoodleTransport implements MoodleTransport {
+
+    /**
+     * The transport shared by all the clients of the plugin
+     */
+    public static final HttpMoodleTransport SHARED = new HttpMoodleTransport();
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+    /**
+     * The HTTP statuses of a server, or of a proxy in front of it, which is temporarily unavailable
+     */
+    private static final Set<Integer> UNAVAILABLE_STATUSES = Set.of(502, 503, 504);
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2) //Falls back to HTTP/1.1 when the server does not support it
+            .connectTimeout(CONNECT_TIMEOUT)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private HttpMoodleTransport() {
+    }
+
+    /**
+     * Return the client of the transport, to open other connections, such as websockets, on the same thread pool.
+     */
+    public HttpClient getClient() {
+        return client;
+    }
+
+    @Override
+    public Exchange post(String url, FormBody body) throws VplConnectionException, MoodleWebServiceException {
+        HttpResponse<byte[]> response = send(request(url, body), HttpResponse.BodyHandlers.ofByteArray());
+        try (InputStream answer = decode(response, new ByteArrayInputStream(response.body()))) {
+            return new Exchange(readAnswer(answer), body.getBytesSent(), response.body().length);
+        } catch (IOException | JsonException e) {
+            throw new VplConnectionException(e.getMessage());
+        }
+    }
+
+    @Override
+    public <T> Streamed<T> post(String url, FormBody body, AnswerReader<T> reader)
+            throws VplConnectionException, MoodleWebServiceException, IOException {
+        HttpResponse<InputStream> response = send(request(url, body), HttpResponse.BodyHandlers.ofInputStream());
+        CountingInputStream received = new CountingInputStream(response.body());
+        try (InputStream answer = decode(response, received)) {
+            T result = reader.read(answer);
+            return new Streamed<>(result, body.getBytesSent(), received.count);
+        } catch (JsonException e) {
+            throw new VplConnectionException(e.getMessage());
+        }
+    }
+
+    private static HttpRequest request(String url, FormBody body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8")
+                .header("Accept-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofInputStream(body::open)) //The files are read while the request is sent
+                .build();
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws VplConnectionException {
+        HttpResponse<T> response;
+        try {
+            response = client.send(request, handler);
+        } catch (IOException e) {
+            throw new ServiceUnreachableException(e.getMessage());
+        } catch (InterruptedException e) {
+            //The call was cancelled, which is not a connection failure: the caller must not take the VPL for unreachable
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        }
+        if (response.statusCode() != 200) {
+            if (response.body() instanceof InputStream stream) {
+                //Release the connection
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    //The connection is discarded
+                }
+            }
+            if (UNAVAILABLE_STATUSES.contains(response.statusCode())) {
+                throw new ServiceUnreachableException("HTTP " + response.statusCode());
+            }
+            throw new VplConnectionException("HTTP " + response.statusCode());
+        }
+        return response;
+    }
+
+    /**
+     * Return the body of the response, decompressed if the server compressed it.
+     */
+    private static InputStream decode(HttpResponse<?> response, InputStream body) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(body) : body;
+    }
+
+    /**
+     * Read the JSON answer of the web service.
+     * Functions returning nothing answer {@code null}, which is read as an empty object.
+     */
+    private static JsonObject readAnswer(InputStream body) throws IOException, MoodleWebServiceException {
+        String text = new String(body.readAllBytes(), StandardCharsets.UTF_8).trim();
+        if (text.isEmpty() || text.equals("null")) {
+            return Json.createObjectBuilder().build();
+        }
+        JsonStructure json;
+        try (JsonReader reader = Json.createReader(new StringReader(text))) {
+            json = reader.read();
+        }
+        if (!(json instanceof JsonObject object)) {
+            return Json.createObjectBuilder().build();
+        }
+        if (object.containsKey("exception")) {
+            throw new MoodleErrorException(object.getString("message", object.getString("exception", "")),
+                    object.getString("errorcode", ""));
+        }
+        return object;
+    }
+
+    /**
+     * A stream counting the bytes read from another stream.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.Pattern;
+
+/**
+ * This class is the compiled form of a .vplignore file.
+ * The patterns are compiled once: full names go into a set, "dir/**" patterns into a trie of directories, and the
+ * other wildcards into a single regular expression. A matcher is cached for each .vplignore file and compiled again
+ * only when the file changes.
+ * Paths are relative to the directory of the .vplignore file, with '/' as separator.
+ */
+public class IgnoreMatcher {
+
+    public static final String IGNORE_FILE_NAME = ".vplignore";
+
+    /**
+     * A matcher which excludes nothing
+     */
+    public static final IgnoreMatcher EMPTY = compile(Collections.emptyList());
+
+    private static final Map<String, CachedMatcher> cache = new ConcurrentHashMap<>();
+
+    /**
+     * The patterns without wildcard
+     */
+    private final Set<String> names;
+
+    /**
+     * The root of the trie of the directories excluded with all their content
+     */
+    private final TrieNode excludedTrees;
+
+    /**
+     * All the patterns with wildcards, or {@code null} if there is none
+     */
+    private final Pattern globs;
+
+    private IgnoreMatcher(Set<String> names, TrieNode excludedTrees, Pattern globs) {
+        this.names = names;
+        this.excludedTrees = excludedTrees;
+        this.globs = globs;
+    }
+
+    /**
+     * Return the matcher of the .vplignore file of the given directory.
+     * The file is read at each call, and compiled again only if its content has changed since the last call.
+     *
+     * @param path the directory holding the .vplignore file
+     * @return the matcher, which excludes nothing if there is no .vplignore file
+     * @throws IOException If the .vplignore file cannot be read
+     */
+    public static IgnoreMatcher forDirectory(String path) throws IOException {
+        File ignoreFile = new File(path, IGNORE_FILE_NAME);
+        String key = ignoreFile.getAbsolutePath();
+        if (!ignoreFile.isFile()) {
+            cache.remove(key);
+            return EMPTY;
+        }
+
+        //The file is small, its content is compared rather than its date, which can stay the same after an edit
+        byte[] content = Files.readAllBytes(ignoreFile.toPath());
+        String hash = ContentManifest.hash(content);
+        CachedMatcher cached = cache.get(key);
+        if (cached != null && cached.hash.equals(hash)) {
+            return cached.matcher;
+        }
+
+        IgnoreMatcher matcher = compile(new String(content, StandardCharsets.UTF_8).lines().toList());
+        cache.put(key, new CachedMatcher(matcher, hash));
+        return matcher;
+    }
+
+    /**
+     * Compile the given lines of a .vplignore file. Empty lines and lines starting with '#' are ignored.
+     *
+     * @param lines the patterns
+     * @return the compiled matcher
+     */
+    public static IgnoreMatcher compile(List<String> lines) {
+        Set<String> names = new HashSet<>();
+        TrieNode excludedTrees = new TrieNode();
+        List<String> globs = new ArrayList<>();
+        for (String line : lines) {
+            String pattern = normalize(line.trim());
+            if (pattern.isEmpty() || pattern.startsWith("#")) {
+                continue;
+            }
+            if (pattern.endsWith("/**") && !pattern.substring(0, pattern.length() - 3).contains("*")) {
+                excludedTrees.add(pattern.substring(0, pattern.length() - 3));
+            } else if (pattern.contains("*")) {
+                globs.add(toRegex(pattern));
+            } else {
+                names.add(pattern);
+            }
+        }
+        Pattern regex = globs.isEmpty() ? null : Pattern.compile(String.join("|", globs));
+        return new IgnoreMatcher(names, excludedTrees, regex);
+    }
+
+    /**
+     * Return a matcher which also excludes the given full names.
+     *
+     * @param extraNames the names to exclude
+     * @return the new matcher, sharing the compiled patterns of this one
+     */
+    public IgnoreMatcher plus(String... extraNames) {
+        Set<String> allNames = new HashSet<>(names);
+        allNames.addAll(Arrays.asList(extraNames));
+        return new IgnoreMatcher(allNames, excludedTrees, globs);
+    }
+
+    /**
+     * Return if the file or directory is excluded.
+     *
+     * @param relativePath the path of the file, relative to the directory of the .vplignore file
+     * @return {@code true} if the file must be ignored
+     */
+    public boolean isExcluded(String relativePath) {
+        String path = normalize(relativePath);
+        return names.contains(path)
+                || excludedTrees.containsAncestorOf(path)
+                || (globs != null && globs.matcher(path).matches());
+    }
+
+    /**
+     * Return if nothing in the directory can be included, so that it does not need to be walked.
+     *
+     * @param relativePath the path of the directory, relative to the directory of the .vplignore file
+     * @return {@code true} if the directory must not be walked
+     */
+    public boolean isExcludedDirectory(String relativePath) {
+        return isExcluded(relativePath) || excludedTrees.contains(normalize(relativePath));
+    }
+
+    /**
+     * List the files of the directory which are not excluded. The excluded directories are not walked at all.
+     * The subdirectories are walked concurrently, and their files are gathered back in order.
+     * When called from a background task, the walk stops if the task is cancelled.
+     *
+     * @param root the directory of the .vplignore file
+     * @return the included files, sorted by path
+     */
+    public List<File> listIncludedFiles(File root) {
+        //The pool threads have no indicator of their own, the one of the caller is given to every task
+        ProgressIndicator indicator = ProgressManager.getInstance().getProgressIndicator();
+        return ForkJoinPool.commonPool().invoke(new ListTask(root, "", indicator));
+    }
+
+    /**
+     * The listing of the included files of a directory, which forks the listing of each of its subdirectories.
+     */
+    private class ListTask extends RecursiveTask<List<File>> {
+
+        private final File directory;
+        private final String relativePath;
+        private final ProgressIndicator indicator;
+
+        ListTask(File directory, String relativePath, ProgressIndicator indicator) {
+            this.directory = directory;
+            this.relativePath = relativePath;
+            this.indicator = indicator;
+        }
+
+        @Override
+        protected List<File> compute() {
+            if (indicator != null) {
+                indicator.checkCanceled();
+            }
+            File[] children = directory.listFiles();
+            if (children == null) {
+                return Collections.emptyList();
+            }
+            Arrays.sort(children);
+            //Each child is either a file or the task listing a subdirectory, in the order of the names
+            List<Object> entries = new ArrayList<>(children.length);
+            for (File child : children) {
+                String childPath = relativePath.isEmpty() ? child.getName() : relativePath + "/" + child.getName();
+                if (child.isDirectory()) {
+                    if (!isExcludedDirectory(childPath)) {
+                        entries.add(new ListTask(child, childPath, indicator).fork());
+                    }
+                } else if (!isExcluded(childPath)) {
+                    entries.add(child);
+                }
+            }
+            List<File> result = new ArrayList<>();
+            for (Object entry : entries) {
+                if (entry instanceof ListTask task) {
+                    result.addAll(task.join());
+                } else {
+                    result.add((File) entry);
+                }
+            }
+            return result;
+        }
+    }
+
+    private static String normalize(String path) {
+        path = path.replace('\\', '/');
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    /**
+     * Translate a pattern to a regular expression. As with FileUtils.isExcluded, '*' and '**' both match anything,
+     * '/' included, so that "*.class" also excludes the nested files.
+     */
+    private static String toRegex(String pattern) {
+        StringBuilder regex = new StringBuilder("(?:");
+        int start = 0;
+        int star = pattern.indexOf('*');
+        while (star != -1) {
+            if (star > start) {
+                regex.append(Pattern.quote(pattern.substring(start, star)));
+            }
+            regex.append(".*");
+            start = star + 1;
+            while (start < pattern.length() && pattern.charAt(start) == '*') {
+                start++;
+            }
+            star = pattern.indexOf('*', start);
+        }
+        if (start < pattern.length()) {
+            regex.append(Pattern.quote(pattern.substring(start)));
+        }
+        return regex.append(')').toString();
+    }
+
+    /**
+     * A node of the trie of the directories excluded with all their content.
+     */
+    private static class TrieNode {
+        private final Map<String, TrieNode> children = new HashMap<>();
+        private boolean excluded;
+
+        void add(String directory) {
+            TrieNode node = this;
+            for (String segment : normalize(directory).split("/")) {
+                node = node.children.computeIfAbsent(segment, s -> new TrieNode());
+            }
+            node.excluded = true;
+        }
+
+        /**
+         * Return if the path is strictly inside an excluded directory.
+         */
+        boolean containsAncestorOf(String path) {
+            TrieNode node = this;
+            int start = 0;
+            int slash = path.indexOf('/');
+            while (slash != -1) {
+                node = node.children.get(path.substring(start, slash));
+                if (node == null) {
+                    return false;
+                }
+                if (node.excluded) {
+                    return true;
+                }
+                start = slash + 1;
+                slash = path.indexOf('/', start);
+            }
+            return false;
+        }
+
+        /**
+         * Return if the path is an excluded directory or is inside one.
+         */
+        boolean contains(String path) {
+            if (containsAncestorOf(path)) {
+                return true;
+            }
+            TrieNode node = this;
+            for (String segment : path.split("/")) {
+                node = node.children.get(segment);
+                if (node == null) {
+                    return false;
+                }
+            }
+            return node.excluded;
+        }
+    }
+
+    private static class CachedMatcher {
+        private final IgnoreMatcher matcher;
+        private final String hash;
+
+        CachedMatcher(IgnoreMatcher matcher, String hash) {
+            this.matcher = matcher;
+            this.hash = hash;
+        }
+    }
+}
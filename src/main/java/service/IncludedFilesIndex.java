@@ -0,0 +1,307 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtil;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import module.CompSciToolsModuleBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This project service keeps the index of the files of the source directory which are pushed, that is to say not
+ * excluded by its .vplignore file, with the size, date and hash of their content.
+ * The index is built by one walk of the directory, then kept up to date from the changes of the virtual file system:
+ * the creation and the deletion of files update it, and the changes of content are detected from the size and the
+ * date of the files, which are only trusted once they are older than the hash, like the racy-clean check of git.
+ * The changes it cannot follow cheaply, such as the creation of a directory, a move, a rename or a change of the
+ * .vplignore file, make it walk the directory again at the next use.
+ */
+public final class IncludedFilesIndex implements Disposable {
+
+    /**
+     * Coarsest resolution in milliseconds of the date of the files, among the usual file systems
+     */
+    private static final long MTIME_RESOLUTION = 2000;
+
+    private final String root;
+    private final String rootPath;
+
+    private final ConcurrentSkipListMap<String, Entry> entries = new ConcurrentSkipListMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+    private volatile boolean valid;
+
+    public IncludedFilesIndex(@NotNull Project project) {
+        this.root = project.getBasePath() + File.separator + CompSciToolsModuleBuilder.SOURCE_DIRECTORY;
+        this.rootPath = root.replace(File.separatorChar, '/') + "/";
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    onEvent(event);
+                }
+            }
+        });
+    }
+
+    /**
+     * Return the index of the given project.
+     *
+     * @param project the current project
+     * @return the IncludedFilesIndex of the project
+     */
+    public static IncludedFilesIndex getInstance(@NotNull Project project) {
+        return project.getService(IncludedFilesIndex.class);
+    }
+
+    /**
+     * Return the included files, sorted by name, as known by the index: the directory is only walked if the index was
+     * invalidated, and the files are not checked on disk. The changes made outside the IDE reach the index through
+     * the events of the virtual file system; a refresh of the source directory is started in the background so that
+     * the next call sees them. A file deleted outside the IDE whose event has not arrived yet is left out by
+     * {@link #hashFiles(List)}.
+     *
+     * @return the files to push
+     * @throws IOException If the .vplignore file cannot be read
+     */
+    public List<File> listFiles() throws IOException {
+        if (!valid) {
+            rebuild();
+        }
+        VfsUtil.markDirtyAndRefresh(true, true, false, new File(root));
+        List<File> files = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            files.add(entry.file);
+        }
+        return files;
+    }
+
+    /**
+     * Return the hash of the content of the given files. Only the files whose size or date has changed since they
+     * were last hashed, or which were modified just before, are read again,
+     * see {@link ContentManifest#hashFiles(List, String)}.
+     *
+     * @param files the files, as given by {@link #listFiles()}
+     * @return the hash of each file, indexed by its name relative to the root, with '/' as separator, without the
+     * files which no longer exist
+     * @throws IOException If a file cannot be read
+     */
+    public Map<String, String> hashFiles(List<File> files) throws IOException {
+        Map<String, String> hashes = new TreeMap<>();
+        List<File> stale = new ArrayList<>();
+        List<Entry> staleEntries = new ArrayList<>();
+        List<long[]> staleStamps = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (File file : files) {
+            String name = relativeName(file);
+            Entry entry = entries.computeIfAbsent(name, n -> new Entry(file));
+            String hash = entry.getHashIfUnchanged();
+            if (hash != null) {
+                hashes.put(name, hash);
+            } else {
+                //The size and date are taken before the file is read, so a change during the hashing is seen next time
+                long lastModified = file.lastModified();
+                if (lastModified == 0 && !file.exists()) {
+                    //Deleted outside the IDE, before the event of the deletion
+                    entries.remove(name, entry);
+                    continue;
+                }
+                stale.add(file);
+                staleEntries.add(entry);
+                staleStamps.add(new long[]{file.length(), lastModified, now});
+            }
+        }
+        if (!stale.isEmpty()) {
+            Map<String, String> computed = ContentManifest.hashFiles(stale, root);
+            for (int i = 0; i < stale.size(); i++) {
+                long[] stamp = staleStamps.get(i);
+                staleEntries.get(i).setHash(computed.get(relativeName(stale.get(i))), stamp[0], stamp[1], stamp[2]);
+            }
+            hashes.putAll(computed);
+        }
+        return hashes;
+    }
+
+    /**
+     * Return the names of the included files, as known by the index, without walking the directory nor reading any
+     * file, so that it can be called from the event dispatch thread.
+     *
+     * @return the names relative to the root, sorted, or {@code null} if the index is not up to date
+     */
+    public List<String> peekNames() {
+        return valid ? new ArrayList<>(entries.keySet()) : null;
+    }
+
+    private synchronized void rebuild() throws IOException {
+        if (valid) {
+            return;
+        }
+        long before = modifications.get();
+        IgnoreMatcher matcher = IgnoreMatcher.forDirectory(root);
+        Map<String, Entry> previous = new TreeMap<>(entries);
+        Map<String, Entry> rebuilt = new TreeMap<>();
+        for (File file : matcher.listIncludedFiles(new File(root))) {
+            String name = relativeName(file);
+            //The hashes already computed are kept, they are checked against the size and date of the files
+            Entry entry = previous.get(name);
+            rebuilt.put(name, entry != null ? entry : new Entry(file));
+        }
+        entries.keySet().retainAll(rebuilt.keySet());
+        entries.putAll(rebuilt);
+        //If the directory changed during the walk, it is walked again at the next use
+        valid = modifications.get() == before;
+    }
+
+    private void onEvent(VFileEvent event) {
+        if (event instanceof VFileMoveEvent move) {
+            //A file moved in or out of the source directory
+            if (isUnderRoot(move.getOldPath()) || isUnderRoot(move.getNewPath())) {
+                invalidate();
+            }
+            return;
+        }
+        String path = event.getPath();
+        if (!isUnderRoot(path)) {
+            if (rootPath.startsWith(path + "/")) {
+                //The source directory itself, or one of its parents, changed
+                invalidate();
+            }
+            return;
+        }
+        modifications.incrementAndGet();
+        String name = path.substring(rootPath.length());
+        if (name.equals(IgnoreMatcher.IGNORE_FILE_NAME)) {
+            //The rules have changed
+            valid = false;
+        } else if (event instanceof VFileCreateEvent create) {
+            if (create.isDirectory()) {
+                valid = false;
+            } else if (valid && isIncluded(name)) {
+                entries.put(name, new Entry(new File(root, name.replace('/', File.separatorChar))));
+            }
+        } else if (event instanceof VFileContentChangeEvent) {
+            //The date may not have changed if the file was written twice within its resolution
+            Entry entry = entries.get(name);
+            if (entry != null) {
+                entry.forget();
+            }
+        } else if (event instanceof VFileDeleteEvent) {
+            entries.remove(name);
+            //The files of a deleted directory
+            entries.subMap(name + "/", name + "0").clear();
+        } else if (event instanceof VFileCopyEvent
+                || event instanceof VFilePropertyChangeEvent property && property.isRename()) {
+            valid = false;
+        }
+        //A change of content made outside the IDE is detected from the size and the date of the file
+    }
+
+    private boolean isUnderRoot(String path) {
+        return path != null && path.startsWith(rootPath);
+    }
+
+    private void invalidate() {
+        modifications.incrementAndGet();
+        valid = false;
+    }
+
+    /**
+     * Return if a file is pushed, according to the current .vplignore file.
+     */
+    private boolean isIncluded(String name) {
+        IgnoreMatcher matcher;
+        try {
+            matcher = IgnoreMatcher.forDirectory(root);
+        } catch (IOException e) {
+            valid = false;
+            return false;
+        }
+        for (int slash = name.indexOf('/'); slash != -1; slash = name.indexOf('/', slash + 1)) {
+            if (matcher.isExcludedDirectory(name.substring(0, slash))) {
+                return false;
+            }
+        }
+        return !matcher.isExcluded(name);
+    }
+
+    private String relativeName(File file) {
+        String path = file.getPath().replace(File.separatorChar, '/');
+        return path.startsWith(rootPath) ? path.substring(rootPath.length()) : path;
+    }
+
+    @Override
+    public void dispose() {
+        entries.clear();
+    }
+
+    /**
+     * A file of the index, with the hash of its content when it was last read.
+     */
+    private static final class Entry {
+
+        private final File file;
+        private String hash;
+        private long length = -1;
+        private long lastModified = -1;
+        private long hashedAt = -1;
+
+        Entry(File file) {
+            this.file = file;
+        }
+
+        /**
+         * Return the hash if the file has not changed since it was read, or {@code null} if it must be read again.
+         * A file modified too shortly before it was read could have been modified again afterwards with the same
+         * date, so its hash is only trusted once its date is older than the read by more than the resolution.
+         */
+        synchronized String getHashIfUnchanged() {
+            return hash != null && lastModified < hashedAt - MTIME_RESOLUTION
+                    && file.length() == length && file.lastModified() == lastModified ? hash : null;
+        }
+
+        /**
+         * @param hashedAt the time the size and the date were taken, before the file was read
+         */
+        synchronized void setHash(String hash, long length, long lastModified, long hashedAt) {
+            this.hash = hash;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.hashedAt = hashedAt;
+        }
+
+        synchronized void forget() {
+            hash = null;
+        }
+    }
+}
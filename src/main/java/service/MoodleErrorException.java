@@ -0,0 +1,53 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import vplwsclient.exception.MoodleWebServiceException;
+
+import java.util.Set;
+
+/**
+ * Exception thrown when the web service answered with a Moodle exception, which keeps the error code of Moodle.
+ */
+public class MoodleErrorException extends MoodleWebServiceException {
+
+    /**
+     * The error codes of Moodle telling that the token or the session of the user is not valid
+     */
+    private static final Set<String> AUTHENTICATION_ERRORS = Set.of("invalidtoken", "accessexception", "requireloginerror", "sessionerroruser");
+
+    private final String errorCode;
+
+    public MoodleErrorException(String message, String errorCode) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    /**
+     * Return the error code of Moodle, e.g. "invalidtoken", or an empty string if the answer had none
+     */
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    /**
+     * Return if the web service refused the call because of the token or the session of the user, rather than of
+     * the call itself: the user must reconnect before trying again.
+     */
+    public boolean isAuthenticationError() {
+        return AUTHENTICATION_ERRORS.contains(errorCode);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import vplwsclient.exception.MoodleWebServiceException;
+import vplwsclient.exception.VplConnectionException;
+
+import javax.json.JsonObject;
+import java.io.IOException;
+import java.io.InputStream;
+/**
+ * The way the web-service clients send their requests to the VPL web service.
+ * The clients built by {@link WebserviceClientFactory} share the same transport, see {@link HttpMoodleTransport}.
+ * A request whose thread is interrupted raises a {@link java.util.concurrent.CancellationException}, with the
+ * interrupt flag of the thread restored, rather than a {@link VplConnectionException}. A request which cannot reach
+ * the web service raises a {@link ServiceUnreachableException}, and a Moodle exception in the answer a
+ * {@link MoodleErrorException}, which keeps its error code.
+ */
+public interface MoodleTransport {
+
+    /**
+     * Send a request to the VPL web service.
+     *
+     * @param url        the url of the web service, with its query parameters
+     * @param body       the form parameters of the request
+     * @return the answer of the web service and the size of the exchange
+     * @throws VplConnectionException    If the web service cannot be reached or its answer cannot be read
+     * @throws MoodleWebServiceException If the web service answered with an exception
+     */
+    Exchange post(String url, FormBody body) throws VplConnectionException, MoodleWebServiceException;
+
+    /**
+     * Send a request to the VPL web service and read its answer while it is received, so that it is never held in
+     * memory as a whole.
+     *
+     * @param url    the url of the web service, with its query parameters
+     * @param body   the form parameters of the request
+     * @param reader the reader of the answer, given the decompressed JSON text
+     * @return the result of the reader and the size of the exchange
+     * @throws VplConnectionException    If the web service cannot be reached
+     * @throws MoodleWebServiceException If the web service answered with an exception
+     * @throws IOException               If the answer cannot be read or its content cannot be stored
+     */
+    <T> Streamed<T> post(String url, FormBody body, AnswerReader<T> reader) throws VplConnectionException, MoodleWebServiceException, IOException;
+
+    /**
+     * The reader of an answer received as a stream.
+     */
+    interface AnswerReader<T> {
+        T read(InputStream answer) throws IOException, MoodleWebServiceException;
+    }
+
+    /**
+     * A request and its answer.
+     *
+     * @param answer        the JSON object answered by the web service, empty if the function returns nothing
+     * @param requestBytes  the number of bytes sent
+     * @param responseBytes the number of bytes received, before decompression
+     */
+    record Exchange(JsonObject answer, long requestBytes, long responseBytes) {
+    }
+
+    /**
+     * A request and its answer read as a stream.
+     *
+     * @param result        what the reader made of the answer
+     * @param requestBytes  the number of bytes sent
+     * @param responseBytes the number of bytes received, before decompression
+     */
+    record Streamed<T>(T result, long requestBytes, long responseBytes) {
+    }
+}
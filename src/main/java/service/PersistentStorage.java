@@ -58,6 +58,11 @@ public class PersistentStorage implements PersistentStateComponent<PersistentSto
      */
     public boolean initCheckButtonSelected = true;
 
+    /**
+     * If the end of an evaluation is notified by the execution server (recommended) or only polled (compatibility)
+     */
+    public boolean recommendedRadioButtonSelected = true;
+
     /**
      * In the class PersistentStorage, there is: the vplID, the csToolsURL, the customURL, the user token and the status of every button.
      *
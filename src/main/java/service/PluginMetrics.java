@@ -0,0 +1,243 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.application.ApplicationManager;
+import vplwsclient.RestJsonMoodleClient.VPLService;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This application service records where the time of the plugin goes.
+ * Every call to the web service is recorded under its {@link VPLService}, with its latency, the bytes sent and received
+ * and whether it failed. The local phases of the actions (listing, hashing and writing the files, parsing the
+ * reports) are recorded under their name. The latencies are kept in histograms whose buckets are {@link #BUCKET_BOUNDS}.
+ */
+public final class PluginMetrics {
+
+    public static final String LISTING_FILES = "Listing files";
+    public static final String HASHING_FILES = "Hashing files";
+    public static final String WRITING_FILES = "Writing files";
+    public static final String PARSING_REPORT = "Parsing report";
+
+    /**
+     * Upper bounds in milliseconds of the buckets of the histograms, the last bucket holds the longer operations
+     */
+    public static final long[] BUCKET_BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final Map<String, Operation> services = new ConcurrentHashMap<>();
+    private final Map<String, Operation> phases = new ConcurrentHashMap<>();
+    private volatile long since = System.currentTimeMillis();
+
+    /**
+     * Return the metrics of the plugin.
+     */
+    public static PluginMetrics getInstance() {
+        return ApplicationManager.getApplication().getService(PluginMetrics.class);
+    }
+
+    /**
+     * Record a call to the web service.
+     *
+     * @param service       the called service
+     * @param startNanos    the {@link System#nanoTime()} at the start of the call
+     * @param requestBytes  the number of bytes sent, 0 if unknown
+     * @param responseBytes the number of bytes received, 0 if unknown
+     * @param failed        whether the call ended with an exception
+     */
+    public void recordCall(VPLService service, long startNanos, long requestBytes, long responseBytes, boolean failed) {
+        Operation operation = services.computeIfAbsent(service.name(), name -> new Operation());
+        operation.record(System.nanoTime() - startNanos, failed);
+        operation.requestBytes.add(requestBytes);
+        operation.responseBytes.add(responseBytes);
+    }
+
+    /**
+     * Record a local phase of an action.
+     *
+     * @param phase      the name of the phase, such as {@link #HASHING_FILES}
+     * @param startNanos the {@link System#nanoTime()} at the start of the phase
+     */
+    public void recordPhase(String phase, long startNanos) {
+        phases.computeIfAbsent(phase, name -> new Operation()).record(System.nanoTime() - startNanos, false);
+    }
+
+    /**
+     * Return the statistics of each called service, indexed by its name.
+     */
+    public Map<String, Statistics> getServices() {
+        return snapshot(services);
+    }
+
+    /**
+     * Return the statistics of each local phase, indexed by its name.
+     */
+    public Map<String, Statistics> getPhases() {
+        return snapshot(phases);
+    }
+
+    /**
+     * Return the time in milliseconds since which the metrics are recorded.
+     */
+    public long getSince() {
+        return since;
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public void reset() {
+        services.clear();
+        phases.clear();
+        since = System.currentTimeMillis();
+    }
+
+    /**
+     * Return the metrics, and the activity of the scheduler, as a JSON object.
+     */
+    public JsonObject toJson() {
+        JsonArrayBuilder bounds = Json.createArrayBuilder();
+        for (long bound : BUCKET_BOUNDS) {
+            bounds.add(bound);
+        }
+        PluginScheduler.Statistics scheduler = PluginScheduler.getInstance().getStatistics();
+        return Json.createObjectBuilder()
+                .add("since", since)
+                .add("exportedAt", System.currentTimeMillis())
+                .add("bucketBoundsMillis", bounds)
+                .add("services", toJson(getServices()))
+                .add("phases", toJson(getPhases()))
+                .add("scheduler", Json.createObjectBuilder()
+                        .add("queued", scheduler.queued())
+                        .add("running", scheduler.running())
+                        .add("scheduled", scheduler.scheduled())
+                        .add("completed", scheduler.completed())
+                        .add("failed", scheduler.failed())
+                        .add("averageLatencyMillis", scheduler.averageLatency())
+                        .add("maxLatencyMillis", scheduler.maxLatency())
+                        .add("maxDurationMillis", scheduler.maxDuration()))
+                .build();
+    }
+
+    private static JsonObjectBuilder toJson(Map<String, Statistics> operations) {
+        JsonObjectBuilder json = Json.createObjectBuilder();
+        operations.forEach((name, statistics) -> {
+            JsonArrayBuilder histogram = Json.createArrayBuilder();
+            for (long count : statistics.histogram()) {
+                histogram.add(count);
+            }
+            json.add(name, Json.createObjectBuilder()
+                    .add("count", statistics.count())
+                    .add("errors", statistics.errors())
+                    .add("averageMillis", statistics.averageMillis())
+                    .add("p50Millis", statistics.percentile(0.5))
+                    .add("p90Millis", statistics.percentile(0.9))
+                    .add("maxMillis", statistics.maxMillis())
+                    .add("requestBytes", statistics.requestBytes())
+                    .add("responseBytes", statistics.responseBytes())
+                    .add("histogram", histogram));
+        });
+        return json;
+    }
+
+    private static Map<String, Statistics> snapshot(Map<String, Operation> operations) {
+        Map<String, Statistics> snapshot = new TreeMap<>();
+        operations.forEach((name, operation) -> snapshot.put(name, operation.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * The counters of one kind of operation.
+     */
+    private static final class Operation {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_BOUNDS.length + 1);
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[bucket]) {
+                bucket++;
+            }
+            histogram.incrementAndGet(bucket);
+        }
+
+        Statistics snapshot() {
+            long[] buckets = new long[histogram.length()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = histogram.get(i);
+            }
+            long total = count.sum();
+            return new Statistics(total, errors.sum(),
+                    total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / total),
+                    TimeUnit.NANOSECONDS.toMillis(maxNanos.get()), requestBytes.sum(), responseBytes.sum(), buckets);
+        }
+    }
+
+    /**
+     * The statistics of one kind of operation at a given time.
+     *
+     * @param count         the number of recorded operations
+     * @param errors        the number of operations which failed
+     * @param averageMillis the average duration in milliseconds
+     * @param maxMillis     the longest duration in milliseconds
+     * @param requestBytes  the total number of bytes sent
+     * @param responseBytes the total number of bytes received
+     * @param histogram     the number of operations in each bucket of {@link #BUCKET_BOUNDS}
+     */
+    public record Statistics(long count, long errors, long averageMillis, long maxMillis,
+                             long requestBytes, long responseBytes, long[] histogram) {
+
+        /**
+         * Return an upper estimate, in milliseconds, of the given percentile of the durations.
+         *
+         * @param fraction the percentile, between 0 and 1
+         */
+        public long percentile(double fraction) {
+            long rank = (long) Math.ceil(fraction * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS[i], maxMillis);
+                }
+            }
+            return maxMillis;
+        }
+    }
+}
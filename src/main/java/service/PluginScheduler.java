@@ -0,0 +1,416 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This application service is the single execution layer of the plugin.
+ * Every background work of the plugin (web service calls, polling, repaints) runs on its bounded scheduled pools
+ * instead of its own thread or timer. The short tasks share a small pool, while the tasks which block on the network,
+ * for up to the timeout of a request or of an evaluation, run on a larger pool of their own, so that they never keep
+ * the short ones waiting. Each task is named after what it does, is cancelled when its parent {@link Disposable} is
+ * disposed, and is counted in the {@link Statistics} of the scheduler.
+ */
+public final class PluginScheduler implements Disposable {
+
+    /**
+     * Maximum number of threads used by the plugin at the same time for short tasks
+     */
+    public static final int MAX_THREADS = 4;
+
+    /**
+     * Maximum number of threads used by the plugin at the same time for the tasks blocking on the network
+     */
+    public static final int MAX_BLOCKING_THREADS = 16;
+
+    private static final Logger LOG = Logger.getInstance(PluginScheduler.class);
+
+    private final ScheduledExecutorService executor = AppExecutorUtil.createBoundedScheduledExecutorService("CompSci Tools", MAX_THREADS);
+    private final ScheduledExecutorService blockingExecutor = AppExecutorUtil.createBoundedScheduledExecutorService("CompSci Tools Network", MAX_BLOCKING_THREADS);
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger scheduled = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong dequeued = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
+    private final AtomicLong maxLatency = new AtomicLong();
+    private final AtomicLong maxDuration = new AtomicLong();
+
+    /**
+     * Return the scheduler of the plugin.
+     */
+    public static PluginScheduler getInstance() {
+        return ApplicationManager.getApplication().getService(PluginScheduler.class);
+    }
+
+    /**
+     * Run a task as soon as a thread is available.
+     *
+     * @param name   the name of the task, given to its thread while it runs
+     * @param parent the task is cancelled, and interrupted if it is running, when this parent is disposed
+     * @param task   the task to run
+     * @return the future of the task, which can be cancelled to prevent the run or interrupt it
+     */
+    public Future<?> execute(@NotNull String name, @NotNull Disposable parent, @NotNull Runnable task) {
+        return submit(name, parent, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a task returning a result as soon as a thread is available.
+     *
+     * @param name   the name of the task, given to its thread while it runs
+     * @param parent the task is cancelled, and interrupted if it is running, when this parent is disposed
+     * @param task   the task to run
+     * @return the future of the task, holding its result or the exception it has thrown
+     */
+    public <T> Future<T> submit(@NotNull String name, @NotNull Disposable parent, @NotNull Callable<T> task) {
+        return submit(executor, name, parent, task);
+    }
+
+    /**
+     * Run a task which blocks on the network, such as a web service call, as soon as a thread is available.
+     *
+     * @param name   the name of the task, given to its thread while it runs
+     * @param parent the task is cancelled, and interrupted if it is running, when this parent is disposed
+     * @param task   the task to run
+     * @return the future of the task, which can be cancelled to prevent the run or interrupt it
+     */
+    public Future<?> executeBlocking(@NotNull String name, @NotNull Disposable parent, @NotNull Runnable task) {
+        return submitBlocking(name, parent, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a task returning a result which blocks on the network, such as a web service call, as soon as a thread is
+     * available.
+     *
+     * @param name   the name of the task, given to its thread while it runs
+     * @param parent the task is cancelled, and interrupted if it is running, when this parent is disposed
+     * @param task   the task to run
+     * @return the future of the task, holding its result or the exception it has thrown
+     */
+    public <T> Future<T> submitBlocking(@NotNull String name, @NotNull Disposable parent, @NotNull Callable<T> task) {
+        return submit(blockingExecutor, name, parent, task);
+    }
+
+    private <T> Future<T> submit(ScheduledExecutorService pool, String name, Disposable parent, Callable<T> task) {
+        TrackedTask<T> tracked = new TrackedTask<>(name, task, false, queued, 0);
+        return tracked.attach(parent, pool.submit(tracked));
+    }
+
+    /**
+     * Run a task once, after the given delay.
+     *
+     * @param name   the name of the task, given to its thread while it runs
+     * @param parent the task is cancelled, and interrupted if it is running, when this parent is disposed
+     * @param task   the task to run
+     * @param delay  the delay before the run
+     * @param unit   the unit of the delay
+     * @return the future of the task, which can be cancelled to prevent the run
+     */
+    public ScheduledFuture<?> schedule(@NotNull String name, @NotNull Disposable parent, @NotNull Runnable task,
+                                       long delay, @NotNull TimeUnit unit) {
+        return schedule(executor, name, parent, task, delay, unit);
+    }
+
+    /**
+     * Run a task which blocks on the network, such as a web service call, once, after the given delay.
+     *
+     * @param name   the name of the task, given to its thread while it runs
+     * @param parent the task is cancelled, and interrupted if it is running, when this parent is disposed
+     * @param task   the task to run
+     * @param delay  the delay before the run
+     * @param unit   the unit of the delay
+     * @return the future of the task, which can be cancelled to prevent the run
+     */
+    public ScheduledFuture<?> scheduleBlocking(@NotNull String name, @NotNull Disposable parent, @NotNull Runnable task,
+                                               long delay, @NotNull TimeUnit unit) {
+        return schedule(blockingExecutor, name, parent, task, delay, unit);
+    }
+
+    private ScheduledFuture<?> schedule(ScheduledExecutorService pool, String name, Disposable parent, Runnable task,
+                                        long delay, TimeUnit unit) {
+        TrackedTask<Object> tracked = new TrackedTask<>(name, () -> {
+            task.run();
+            return null;
+        }, false, scheduled, unit.toNanos(delay));
+        return tracked.attach(parent, pool.schedule(tracked, delay, unit));
+    }
+
+    /**
+     * Run a task periodically, with the given delay between the end of a run and the start of the next one.
+     *
+     * @param name         the name of the task, given to its thread while it runs
+     * @param parent       the task is cancelled when this parent is disposed
+     * @param task         the task to run
+     * @param initialDelay the delay before the first run
+     * @param delay        the delay between two runs
+     * @param unit         the unit of the delays
+     * @return the future of the task, which can be cancelled to stop it
+     */
+    public ScheduledFuture<?> scheduleWithFixedDelay(@NotNull String name, @NotNull Disposable parent, @NotNull Runnable task,
+                                                     long initialDelay, long delay, @NotNull TimeUnit unit) {
+        TrackedTask<Object> tracked = new TrackedTask<>(name, () -> {
+            task.run();
+            return null;
+        }, true, scheduled, unit.toNanos(initialDelay));
+        return tracked.attach(parent, executor.scheduleWithFixedDelay(tracked::runPeriodically, initialDelay, delay, unit));
+    }
+
+    /**
+     * Return a snapshot of the activity of the scheduler.
+     */
+    public Statistics getStatistics() {
+        long count = dequeued.get();
+        return new Statistics(queued.get(), running.get(), scheduled.get(), completed.get(), failed.get(),
+                count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalLatency.get() / count),
+                TimeUnit.NANOSECONDS.toMillis(maxLatency.get()), TimeUnit.NANOSECONDS.toMillis(maxDuration.get()));
+    }
+
+    @Override
+    public void dispose() {
+        executor.shutdownNow();
+        blockingExecutor.shutdownNow();
+    }
+
+    /**
+     * A task of the scheduler, which keeps track of its parent and of the time spent in the queue.
+     */
+    private final class TrackedTask<T> implements Callable<T>, Disposable {
+
+        private final String name;
+        private final Callable<T> task;
+        private final boolean isPeriodic;
+        private final AtomicInteger waiting;
+        private final long dueAt;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile Future<?> future;
+        private volatile boolean finished;
+        private boolean registered;
+
+        /**
+         * @param waiting the counter of the tasks of the same kind which are waiting, queued or scheduled
+         * @param delay   the delay in nanoseconds before the task is due
+         */
+        TrackedTask(String name, Callable<T> task, boolean isPeriodic, AtomicInteger waiting, long delay) {
+            this.name = name;
+            this.task = task;
+            this.isPeriodic = isPeriodic;
+            this.waiting = waiting;
+            this.dueAt = System.nanoTime() + delay;
+            waiting.incrementAndGet();
+        }
+
+        /**
+         * Cancel the future of the task when the parent is disposed.
+         *
+         * @return the future given to the caller, which releases the task when it is cancelled
+         */
+        synchronized TrackedFuture<T> attach(Disposable parent, Future<?> future) {
+            this.future = future;
+            if (!finished) {
+                registered = Disposer.tryRegister(parent, this);
+                if (!registered) {
+                    //The parent is already disposed
+                    dispose();
+                }
+            }
+            return new TrackedFuture<>(this, future);
+        }
+
+        /**
+         * Release the task once its future has been cancelled by the caller: a task which will never run is no
+         * longer counted as waiting, and is unregistered from its parent.
+         */
+        void cancelled() {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                if (!isPeriodic && !started.compareAndSet(false, true)) {
+                    //Running, it releases itself when the interrupted run ends
+                    return;
+                }
+                waiting.decrementAndGet();
+                finished = true;
+                if (registered) {
+                    //Unregister from the parent
+                    Disposer.dispose(this);
+                }
+            }
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (started.compareAndSet(false, true)) {
+                waiting.decrementAndGet();
+            }
+            long latency = Math.max(0, System.nanoTime() - dueAt);
+            dequeued.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+            try {
+                return runNamed();
+            } finally {
+                synchronized (this) {
+                    finished = true;
+                    if (registered) {
+                        //Unregister from the parent
+                        Disposer.dispose(this);
+                    }
+                }
+            }
+        }
+
+        void runPeriodically() {
+            try {
+                runNamed();
+            } catch (Exception e) {
+                //A failed run must not stop the next ones
+                LOG.warn("CompSci Tools task failed: " + name, e);
+            }
+        }
+
+        private T runNamed() throws Exception {
+            Thread thread = Thread.currentThread();
+            String threadName = thread.getName();
+            thread.setName("CompSci Tools: " + name);
+            running.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                T result = task.call();
+                completed.incrementAndGet();
+                return result;
+            } catch (Exception | Error e) {
+                failed.incrementAndGet();
+                throw e;
+            } finally {
+                maxDuration.accumulateAndGet(System.nanoTime() - start, Math::max);
+                running.decrementAndGet();
+                thread.setName(threadName);
+            }
+        }
+
+        @Override
+        public void dispose() {
+            Future<?> current = future;
+            if (current != null && !finished && current.cancel(true) && !isPeriodic && started.compareAndSet(false, true)) {
+                //Cancelled before it could start
+                waiting.decrementAndGet();
+            }
+            if (isPeriodic && !finished) {
+                finished = true;
+                waiting.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The future given to the callers, which releases its task when it is cancelled before or instead of running.
+     */
+    private static final class TrackedFuture<T> implements ScheduledFuture<T> {
+
+        private final TrackedTask<?> task;
+        private final Future<?> future;
+
+        TrackedFuture(TrackedTask<?> task, Future<?> future) {
+            this.task = task;
+            this.future = future;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = future.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                task.cancelled();
+            }
+            return cancelled;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return future.isCancelled();
+        }
+
+        @Override
+        public boolean isDone() {
+            return future.isDone();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get() throws InterruptedException, ExecutionException {
+            return (T) future.get();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(long timeout, @NotNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+            return (T) future.get(timeout, unit);
+        }
+
+        @Override
+        public long getDelay(@NotNull TimeUnit unit) {
+            return future instanceof Delayed delayed ? delayed.getDelay(unit) : 0;
+        }
+
+        @Override
+        public int compareTo(@NotNull Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * The activity of the scheduler at a given time.
+     *
+     * @param queued         the number of tasks waiting for a thread
+     * @param running        the number of tasks currently running
+     * @param scheduled      the number of delayed or periodic tasks currently scheduled
+     * @param completed      the number of runs which ended normally
+     * @param failed         the number of runs which ended with an exception
+     * @param averageLatency the average time, in milliseconds, between the time a task was due and its start
+     * @param maxLatency     the longest time, in milliseconds, between the time a task was due and its start
+     * @param maxDuration    the longest time, in milliseconds, taken by a run
+     */
+    public record Statistics(int queued, int running, int scheduled, long completed, long failed,
+                             long averageLatency, long maxLatency, long maxDuration) {
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import vplwsclient.RestJsonMoodleClient;
+import vplwsclient.VplFile;
+import vplwsclient.exception.MoodleWebServiceException;
+import vplwsclient.exception.VplConnectionException;
+
+import javax.json.JsonObject;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A web-service client sending its requests through a {@link MoodleTransport} instead of opening a connection per call.
+ * Every service of the library is called through the transport, the name of its web-service function is derived from
+ * the name of the service. A call interrupted by the cancellation of its task raises a
+ * {@link java.util.concurrent.CancellationException}.
+ * The identical read-only calls made at the same time by different clients are deduplicated, see {@link SingleFlight}.
+ */
+public class PooledMoodleClient extends RestJsonMoodleClient {
+
+    private static final SingleFlight FLIGHTS = new SingleFlight();
+
+    private final String vplID;
+    private final String token;
+    private final MoodleTransport transport;
+    private final String serviceUrl;
+
+    /**
+     * @param vplID     the ID of the VPL
+     * @param token     the token of the user
+     * @param url       the url of the VPL web service
+     * @param transport the transport used to send the requests
+     */
+    public PooledMoodleClient(String vplID, String token, String url, MoodleTransport transport) {
+        //The library expects the token after the ID, see WebserviceClientFactory
+        super(vplID + "&wstoken=" + token, token, url);
+        this.vplID = vplID;
+        this.token = token;
+        this.transport = transport;
+        this.serviceUrl = url + (url.contains("?") ? "&" : "?")
+                + "id=" + URLEncoder.encode(vplID, StandardCharsets.UTF_8)
+                + "&wstoken=" + URLEncoder.encode(token, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public JsonObject callService(VPLService service) throws VplConnectionException, MoodleWebServiceException {
+        return FLIGHTS.call(vplID, token, service, this::send);
+    }
+
+    private JsonObject send(VPLService service) throws VplConnectionException, MoodleWebServiceException {
+        return measure(service, () -> transport.post(serviceUrl, parameters(service)));
+    }
+
+    @Override
+    public JsonObject callServiceWithFiles(VPLService service, List<VplFile> files) throws VplConnectionException, MoodleWebServiceException {
+        FormBody body = parameters(service);
+        for (int i = 0; i < files.size(); i++) {
+            addFile(body, i, files.get(i));
+        }
+        return FLIGHTS.call(vplID, token, service, s -> measure(s, () -> transport.post(serviceUrl, body)));
+    }
+
+    /**
+     * Save the given files on the VPL. Unlike {@link #callServiceWithFiles(VPLService, List)}, the files are not read
+     * in memory: they are read and encoded while the request is sent, see {@link FormBody}.
+     *
+     * @param files the files to save, indexed by their name on the VPL
+     * @return the answer of the web service
+     * @throws IOException               If a file cannot be read before the request is sent
+     * @throws VplConnectionException    If the web service cannot be reached
+     * @throws MoodleWebServiceException If the web service answered with an exception
+     */
+    public JsonObject saveFiles(Map<String, File> files) throws IOException, VplConnectionException, MoodleWebServiceException {
+        FormBody body = parameters(VPLService.VPL_SAVE);
+        int index = 0;
+        for (Map.Entry<String, File> file : files.entrySet()) {
+            body.addFile("files[" + index++ + "]", file.getKey(), file.getValue());
+        }
+        return FLIGHTS.call(vplID, token, VPLService.VPL_SAVE, s -> measure(s, () -> transport.post(serviceUrl, body)));
+    }
+
+    /**
+     * Download the files of the user. Unlike {@code callService(VPLService.VPL_OPEN)}, the answer is not held in
+     * memory: each file is written to a temporary file as soon as it is received, see {@link DownloadedFiles}.
+     *
+     * @return the downloaded files, to be closed once they are synchronized
+     * @throws IOException               If the answer cannot be read or a file cannot be stored
+     * @throws VplConnectionException    If the web service cannot be reached
+     * @throws MoodleWebServiceException If the web service answered with an exception
+     */
+    public DownloadedFiles openFiles() throws IOException, VplConnectionException, MoodleWebServiceException {
+        FormBody body = parameters(VPLService.VPL_OPEN);
+        PluginMetrics metrics = PluginMetrics.getInstance();
+        long start = System.nanoTime();
+        try {
+            MoodleTransport.Streamed<DownloadedFiles> exchange = transport.post(serviceUrl, body, DownloadedFiles::read);
+            metrics.recordCall(VPLService.VPL_OPEN, start, exchange.requestBytes(), exchange.responseBytes(), false);
+            return exchange.result();
+        } catch (IOException | VplConnectionException | MoodleWebServiceException | RuntimeException e) {
+            metrics.recordCall(VPLService.VPL_OPEN, start, 0, 0, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Make a call and record it in the {@link PluginMetrics}.
+     */
+    private static JsonObject measure(VPLService service, Call call) throws VplConnectionException, MoodleWebServiceException {
+        PluginMetrics metrics = PluginMetrics.getInstance();
+        long start = System.nanoTime();
+        try {
+            MoodleTransport.Exchange exchange = call.call();
+            metrics.recordCall(service, start, exchange.requestBytes(), exchange.responseBytes(), false);
+            return exchange.answer();
+        } catch (VplConnectionException | MoodleWebServiceException | RuntimeException e) {
+            metrics.recordCall(service, start, 0, 0, true);
+            throw e;
+        }
+    }
+
+    private interface Call {
+        MoodleTransport.Exchange call() throws VplConnectionException, MoodleWebServiceException;
+    }
+
+    private static FormBody parameters(VPLService service) {
+        return new FormBody()
+                .add("wsfunction", functionName(service))
+                .add("moodlewsrestformat", "json");
+    }
+
+    /**
+     * Add a file given by the library to the body of a request. Text files are sent as is, binary files are sent in base 64.
+     */
+    private static void addFile(FormBody body, int index, VplFile file) throws VplConnectionException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try {
+            file.write(content);
+        } catch (IOException e) {
+            throw new VplConnectionException(e.getMessage());
+        }
+        byte[] bytes = content.toByteArray();
+        String prefix = "files[" + index + "]";
+        body.add(prefix + "[name]", file.getFullName());
+        try {
+            body.add(prefix + "[data]", StandardCharsets.UTF_8.newDecoder().decode(ByteBuffer.wrap(bytes)).toString());
+        } catch (CharacterCodingException e) {
+            body.add(prefix + "[encoding]", "1");
+            body.add(prefix + "[data]", Base64.getEncoder().encodeToString(bytes));
+        }
+    }
+
+    /**
+     * Return the name of the web-service function of the service: the functions of the VPL plugin of Moodle are named
+     * after the services, e.g. VPL_GET_RESULT calls mod_vpl_get_result.
+     */
+    static String functionName(VPLService service) {
+        return "mod_" + service.name().toLowerCase(Locale.ROOT);
+    }
+}
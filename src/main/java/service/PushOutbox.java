@@ -0,0 +1,357 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.project.Project;
+import notifications.CompSciToolsNotifier;
+import org.jetbrains.annotations.NotNull;
+import ui.icons.CompSciToolsIcons;
+import vplwsclient.RestJsonMoodleClient;
+import vplwsclient.RestJsonMoodleClient.VPLService;
+import vplwsclient.VplFile;
+import vplwsclient.exception.MoodleWebServiceException;
+import vplwsclient.exception.VplConnectionException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * This project service keeps the pushes which could not reach the web service, and uploads them in the background
+ * once it can be reached again.
+ * A failed push is stored as a snapshot in the system directory of the IDE: a {@link ContentManifest} and the content
+ * of each file, stored once under its hash. Only the latest snapshot is kept, a newer one replaces the queued one and
+ * any successful push, pull or reset discards it. The upload is retried with an exponential backoff.
+ * A push or a pull holds the outbox while it changes the VPL, see {@link #acquire(long, TimeUnit)}, so that an upload
+ * never runs at the same time. Each new or discarded snapshot starts a new generation, and an upload is dropped if
+ * the generation has changed by the time it sends the files or records them.
+ */
+public final class PushOutbox implements Disposable {
+
+    /**
+     * Time in milliseconds before the first upload attempt
+     */
+    public static final long FIRST_RETRY = 60 * 1000;
+
+    /**
+     * Maximum time in milliseconds between two upload attempts
+     */
+    public static final long MAX_RETRY = 15 * 60 * 1000;
+
+    private static final String BLOBS = "blobs";
+
+    private final Project project;
+    private final Path directory;
+
+    /**
+     * Held while the files of the VPL are changed, by an upload or by a push or a pull
+     */
+    private final ReentrantLock transfer = new ReentrantLock();
+
+    private ScheduledFuture<?> nextReplay;
+    private long retryDelay = FIRST_RETRY;
+    private boolean replaying;
+    private long generation;
+
+    public PushOutbox(@NotNull Project project) {
+        this.project = project;
+        this.directory = Paths.get(PathManager.getSystemPath(), "compsci-tools", "outbox", project.getLocationHash());
+    }
+
+    /**
+     * Return the outbox of the given project.
+     *
+     * @param project the current project
+     * @return the PushOutbox of the project
+     */
+    public static PushOutbox getInstance(@NotNull Project project) {
+        return project.getService(PushOutbox.class);
+    }
+
+    /**
+     * Schedule the upload of the snapshot left by a previous session, if there is one.
+     */
+    public synchronized void start() {
+        if (hasPending() && nextReplay == null) {
+            scheduleReplay(FIRST_RETRY);
+        }
+    }
+
+    /**
+     * Return if a snapshot is waiting to be uploaded.
+     */
+    public boolean hasPending() {
+        return !loadManifest().getVplID().isEmpty();
+    }
+
+    /**
+     * Wait for the end of the upload in progress, if there is one, and prevent any other until {@link #release()}.
+     * A push or a pull holds the outbox from its first call to the VPL until it has discarded the queued snapshot,
+     * so that an older snapshot cannot be uploaded after it.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     * @return {@code true} if the outbox is now held by the current thread, {@code false} if the timeout elapsed
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public boolean acquire(long timeout, TimeUnit unit) throws InterruptedException {
+        return transfer.tryLock(timeout, unit);
+    }
+
+    /**
+     * Let the uploads run again, after {@link #acquire(long, TimeUnit)}.
+     */
+    public void release() {
+        transfer.unlock();
+    }
+
+    /**
+     * Store the given files as the snapshot to upload, replacing the queued one.
+     *
+     * @param vplID the VPL ID of the project
+     * @param files the files to push
+     * @param root  the directory the names of the files are relative to
+     * @throws IOException If the snapshot cannot be written
+     */
+    public synchronized void enqueue(String vplID, List<File> files, String root) throws IOException {
+        Path blobs = directory.resolve(BLOBS);
+        Files.createDirectories(blobs);
+        Map<String, String> hashes = new TreeMap<>();
+        String prefix = root.replace(File.separator, "/") + "/";
+        for (File file : files) {
+            if (!file.isFile()) {
+                //Deleted outside the IDE, the index has not seen it yet
+                continue;
+            }
+            String hash = ContentManifest.hash(file);
+            //A content already stored for another file or another snapshot is not written again
+            if (!Files.exists(blobs.resolve(hash))) {
+                Path temporary = blobs.resolve(hash + ".tmp");
+                Files.copy(file.toPath(), temporary, StandardCopyOption.REPLACE_EXISTING);
+                //The file may have changed since it was hashed, the stored content must match its name
+                hash = ContentManifest.hash(temporary.toFile());
+                Files.move(temporary, blobs.resolve(hash), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            hashes.put(file.getPath().replace(File.separator, "/").replace(prefix, ""), hash);
+        }
+        new ContentManifest(vplID, hashes).save(directory + File.separator);
+        generation++;
+        if (!replaying) {
+            prune(hashes);
+        }
+        retryDelay = FIRST_RETRY;
+        scheduleReplay(FIRST_RETRY);
+    }
+
+    /**
+     * Discard the queued snapshot, a newer state of the project has reached the VPL.
+     */
+    public synchronized void clear() {
+        if (nextReplay != null) {
+            nextReplay.cancel(false);
+            nextReplay = null;
+        }
+        ContentManifest.invalidate(directory + File.separator);
+        generation++;
+        if (!replaying) {
+            prune(Map.of());
+        }
+    }
+
+    private synchronized void scheduleReplay(long delay) {
+        if (nextReplay != null) {
+            nextReplay.cancel(false);
+        }
+        nextReplay = PluginScheduler.getInstance().scheduleBlocking("Replay queued push", this, this::replay, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Upload the queued snapshot, or try again later if the web service cannot be reached.
+     */
+    private void replay() {
+        ContentManifest snapshot;
+        long snapshotGeneration;
+        synchronized (this) {
+            nextReplay = null;
+            snapshot = loadManifest();
+            if (snapshot.getVplID().isEmpty() || project.isDisposed()) {
+                return;
+            }
+            snapshotGeneration = generation;
+            replaying = true;
+        }
+        boolean uploaded = false;
+        try {
+            //Wait for the push or the pull in progress, it may make the snapshot outdated
+            transfer.lockInterruptibly();
+            try {
+                uploaded = upload(snapshot, snapshotGeneration);
+            } finally {
+                transfer.unlock();
+            }
+        } catch (InterruptedException e) {
+            //The project is closing, the snapshot is uploaded in the next session
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                replaying = false;
+                ContentManifest current = loadManifest();
+                if (uploaded) {
+                    retryDelay = FIRST_RETRY;
+                    if (current.matches(snapshot.getVplID(), snapshot.getHashes())) {
+                        ContentManifest.invalidate(directory + File.separator);
+                        prune(Map.of());
+                    } else {
+                        //A newer snapshot was queued during the upload
+                        prune(current.getHashes());
+                    }
+                } else if (!current.getVplID().isEmpty() && nextReplay == null) {
+                    retryDelay = Math.min(retryDelay * 2, MAX_RETRY);
+                    scheduleReplay(retryDelay);
+                }
+            }
+        }
+    }
+
+    /**
+     * Upload a snapshot, while holding the outbox.
+     *
+     * @param snapshotGeneration the generation of the snapshot when it was loaded
+     * @return {@code true} if the snapshot no longer has to be uploaded, {@code false} if it must be tried again
+     */
+    private boolean upload(ContentManifest snapshot, long snapshotGeneration) {
+        String basePath = project.getBasePath() + File.separator;
+        ServiceGetter servGet = VplProjectService.getInstance(project).getServiceGetter();
+        if (servGet.hasFailed()) {
+            //Check if the web service can be reached again
+            servGet.update();
+            if (servGet.hasFailed()) {
+                if (!servGet.isUnreachable()) {
+                    //The web service refused the token, waiting will not change anything
+                    askToReconnect();
+                }
+                return false;
+            }
+        }
+        if (!snapshot.getVplID().equals(PersistentStorage.getInstance().getProjectVplID(basePath))) {
+            //The project is now linked to another VPL, the snapshot is useless
+            return true;
+        }
+
+        Map<String, File> files = new LinkedHashMap<>();
+        Path blobs = directory.resolve(BLOBS);
+        snapshot.getHashes().forEach((name, hash) -> files.put(name, blobs.resolve(hash).toFile()));
+        if (!isCurrent(snapshotGeneration)) {
+            //A push or a pull has replaced or discarded the snapshot, the VPL must not go back to it
+            return true;
+        }
+        try {
+            RestJsonMoodleClient client = servGet.getRJMC();
+            if (client instanceof PooledMoodleClient pooled) {
+                pooled.saveFiles(files);
+            } else {
+                List<VplFile> vplFiles = new ArrayList<>();
+                for (Map.Entry<String, File> file : files.entrySet()) {
+                    vplFiles.add(new VplFile(file.getValue(), file.getKey()));
+                }
+                client.callServiceWithFiles(VPLService.VPL_SAVE, vplFiles);
+            }
+        } catch (VplConnectionException | IOException e) {
+            return false;
+        } catch (MoodleWebServiceException e) {
+            if (e instanceof MoodleErrorException error && error.isAuthenticationError()) {
+                //The token or the session is not valid anymore
+                askToReconnect();
+                return false;
+            }
+            //The VPL refused the files, trying again would not change anything
+            CompSciToolsNotifier.notifyError(project, "ERROR : queued push rejected", e.getMessage());
+            return true;
+        }
+        if (!isCurrent(snapshotGeneration)) {
+            //A newer snapshot was queued during the upload, the files of the project are not those of the VPL
+            ContentManifest.invalidate(basePath);
+            return true;
+        }
+        try {
+            snapshot.save(basePath);
+        } catch (IOException e) {
+            //The next push will not be skipped, which is harmless
+            ContentManifest.invalidate(basePath);
+        }
+        CompSciToolsNotifier.notifyInfo(project, "Queued push uploaded",
+                "The files saved while CompSci Tools could not be reached are now on the platform", CompSciToolsIcons.Push);
+        return true;
+    }
+
+    /**
+     * Ask the user to check the token and the settings, once for each series of failed uploads. The snapshot is kept
+     * and uploaded once the web service accepts the token again.
+     */
+    private void askToReconnect() {
+        synchronized (this) {
+            if (retryDelay != FIRST_RETRY) {
+                return;
+            }
+        }
+        CompSciToolsNotifier.notifyConnectionError(project, false);
+    }
+
+    private synchronized boolean isCurrent(long snapshotGeneration) {
+        return generation == snapshotGeneration;
+    }
+
+    private ContentManifest loadManifest() {
+        return ContentManifest.load(directory + File.separator);
+    }
+
+    /**
+     * Delete the stored contents which are not part of the given snapshot.
+     */
+    private void prune(Map<String, String> hashes) {
+        Path blobs = directory.resolve(BLOBS);
+        if (!Files.isDirectory(blobs)) {
+            return;
+        }
+        Set<String> kept = new HashSet<>(hashes.values());
+        try (Stream<Path> stored = Files.list(blobs)) {
+            stored.filter(blob -> !kept.contains(blob.getFileName().toString()))
+                    .forEach(blob -> blob.toFile().delete());
+        } catch (IOException e) {
+            //The contents will be deleted with the next snapshot
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
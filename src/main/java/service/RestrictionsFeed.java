@@ -0,0 +1,225 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import module.CompSciToolsModuleBuilder;
+import org.jetbrains.annotations.NotNull;
+import vplwsclient.RestJsonMoodleClient.VPLService;
+import vplwsclient.exception.MoodleWebServiceException;
+import vplwsclient.exception.VplConnectionException;
+
+import javax.json.JsonObject;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * This project service fetches VPL_GET_SUBRESTRICTIONS and publishes the result on the {@link RestrictionsListener#TOPIC},
+ * so the clock and the evaluation counter share a single request.
+ * The countdown is computed locally from the last sync, so the restrictions are only fetched again to correct the drift:
+ * rarely when hours remain, more often when the deadline gets close, right after an evaluation has finished and as soon
+ * as a suspend of the computer is detected.
+ */
+public final class RestrictionsFeed implements Disposable {
+
+    /**
+     * Time in milliseconds between two calls to the web service when there is no time limit, or when the time is up
+     */
+    public static final long POLL_PERIOD = 30 * 60 * 1000;
+
+    /**
+     * Time in milliseconds before trying again when the web service could not be reached
+     */
+    public static final long RETRY_PERIOD = 60 * 1000;
+
+    /**
+     * Difference in milliseconds between the elapsed wall-clock time and the elapsed monotonic time beyond which the
+     * computer is considered to have been suspended
+     */
+    public static final long SUSPEND_THRESHOLD = 5 * 1000;
+
+    private static final Logger LOG = Logger.getInstance(RestrictionsFeed.class);
+
+    private final Project project;
+
+    private volatile SubRestrictions latest;
+
+    private boolean started;
+
+    private ScheduledFuture<?> nextSync;
+
+    /**
+     * If a sync has been requested since the start of the last fetch
+     */
+    private boolean refreshRequested;
+
+    private long lastCheckWallTime;
+
+    private long lastCheckTime;
+
+    public RestrictionsFeed(@NotNull Project project) {
+        this.project = project;
+        project.getMessageBus().connect(this).subscribe(EvaluationListener.TOPIC, this::refresh);
+    }
+
+    /**
+     * Return the instance of the feed for the given project.
+     *
+     * @param project the current project
+     * @return the RestrictionsFeed of the project
+     */
+    public static RestrictionsFeed getInstance(@NotNull Project project) {
+        return project.getService(RestrictionsFeed.class);
+    }
+
+    /**
+     * Register a subscriber to the {@link RestrictionsListener#TOPIC}, which is immediately given the latest
+     * restrictions if there are some. The polling starts with the first subscriber.
+     *
+     * @param parent     the subscriber is removed when this parent is disposed
+     * @param subscriber called each time the restrictions are fetched
+     */
+    public void subscribe(@NotNull Disposable parent, @NotNull Consumer<SubRestrictions> subscriber) {
+        project.getMessageBus().connect(parent).subscribe(RestrictionsListener.TOPIC, subscriber::accept);
+        SubRestrictions current = latest;
+        if (current != null) {
+            subscriber.accept(current);
+        }
+        start();
+    }
+
+    /**
+     * Return the latest restrictions, or {@code null} if they have not been fetched yet.
+     */
+    public SubRestrictions getLatest() {
+        return latest;
+    }
+
+    /**
+     * Fetch the restrictions now, for example after an evaluation changed the number of evaluations.
+     */
+    public synchronized void refresh() {
+        refreshRequested = true;
+        scheduleSync(0);
+    }
+
+    /**
+     * Fetch the restrictions again if the computer has been suspended since the last check.
+     * The local countdown does not advance while the computer sleeps, it is called regularly while it is shown.
+     */
+    public void checkForSuspend() {
+        long wallTime = System.currentTimeMillis();
+        long time = System.nanoTime();
+        boolean suspended;
+        synchronized (this) {
+            suspended = started && lastCheckTime != 0
+                    && (wallTime - lastCheckWallTime) - (time - lastCheckTime) / 1_000_000 > SUSPEND_THRESHOLD;
+            lastCheckWallTime = wallTime;
+            lastCheckTime = time;
+        }
+        if (suspended) {
+            refresh();
+        }
+    }
+
+    private synchronized void start() {
+        if (started || !CompSciToolsModuleBuilder.isCompSciToolsProject(project)) {
+            return;
+        }
+        started = true;
+        refresh();
+    }
+
+    private void fetch() {
+        if (project.isDisposed()) {
+            return;
+        }
+        synchronized (this) {
+            refreshRequested = false;
+        }
+        //Keep counting down from the last sync until the web service can be reached again
+        SubRestrictions restrictions = latest != null ? latest : SubRestrictions.NONE;
+        long delay = RETRY_PERIOD;
+        try {
+            ServiceGetter serv = VplProjectService.getInstance(project).getServiceGetter();
+            long sent = System.nanoTime();
+            JsonObject response = serv.getRJMC().callService(VPLService.VPL_GET_SUBRESTRICTIONS);
+            //The server computed the time left somewhere during the request, assume it was in the middle
+            long syncTime = sent + (System.nanoTime() - sent) / 2;
+            restrictions = SubRestrictions.parse(response, syncTime);
+            delay = nextSyncDelay(restrictions.getRemainingMillis());
+        } catch (VplConnectionException | MoodleWebServiceException e) {
+            //The web service cannot be reached, it is tried again after RETRY_PERIOD
+        } catch (RuntimeException e) {
+            //An unexpected answer must not stop the syncs, and the scheduler would not report it
+            LOG.warn("Could not sync the submission restrictions", e);
+        } finally {
+            latest = restrictions;
+            synchronized (this) {
+                //A sync requested during the fetch may return newer restrictions, let it schedule the next one
+                if (!refreshRequested && !project.isDisposed()) {
+                    scheduleSync(delay);
+                }
+            }
+        }
+        checkForSuspend();
+        if (!project.isDisposed()) {
+            project.getMessageBus().syncPublisher(RestrictionsListener.TOPIC).restrictionsUpdated(restrictions);
+        }
+    }
+
+    /**
+     * Return the delay before the next sync, which gets shorter when the deadline gets closer.
+     * A random jitter spreads the requests of the students working on the same exercise.
+     *
+     * @param remaining the time left in milliseconds, or {@code null} if there is no time limit
+     * @return the delay in milliseconds
+     */
+    static long nextSyncDelay(Long remaining) {
+        long delay;
+        if (remaining == null || remaining <= 0) {
+            delay = POLL_PERIOD;
+        } else if (remaining > 60 * 60 * 1000) {
+            delay = 30 * 60 * 1000;
+        } else if (remaining > 10 * 60 * 1000) {
+            delay = 5 * 60 * 1000;
+        } else if (remaining > 60 * 1000) {
+            delay = 60 * 1000;
+        } else {
+            delay = 15 * 1000;
+        }
+        return delay - ThreadLocalRandom.current().nextLong(delay / 10 + 1);
+    }
+
+    /**
+     * Replace the next sync, so there is never more than one pending.
+     */
+    private synchronized void scheduleSync(long delay) {
+        if (nextSync != null) {
+            nextSync.cancel(false);
+        }
+        nextSync = PluginScheduler.getInstance().scheduleBlocking("Sync restrictions", this, this::fetch, delay, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void dispose() {
+        //The scheduled sync and the connection to the message bus are disposed with the feed
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.util.messages.Topic;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener of the submission restrictions of a project, fetched by the {@link RestrictionsFeed}.
+ * The events are published on the message bus of the project, from the thread which fetched the restrictions.
+ */
+public interface RestrictionsListener {
+
+    Topic<RestrictionsListener> TOPIC = Topic.create("CompSci Tools restrictions updated", RestrictionsListener.class);
+
+    /**
+     * Called each time the restrictions are fetched.
+     *
+     * @param restrictions the latest restrictions of the project
+     */
+    void restrictionsUpdated(@NotNull SubRestrictions restrictions);
+}
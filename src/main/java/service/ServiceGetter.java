@@ -16,10 +16,7 @@
 package service;
 
 import com.intellij.openapi.editor.colors.EditorColorsManager;
-import com.intellij.openapi.vfs.LocalFileSystem;
-import com.intellij.openapi.vfs.VirtualFile;
 import module.CompSciToolsModuleBuilder;
-import vplwsclient.FileUtils;
 import vplwsclient.RestJsonMoodleClient;
 import vplwsclient.RestJsonMoodleClient.VPLService;
 import vplwsclient.VplFile;
@@ -28,10 +25,10 @@ import vplwsclient.exception.VplConnectionException;
 
 import javax.json.JsonObject;
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 
 /**
  * This class is used to bridge between the plugin and the RestJsonMoodleClient.
@@ -41,9 +38,26 @@ import java.util.Objects;
  */
 public class ServiceGetter {
 
-    private RestJsonMoodleClient RJMC;
-    private JsonObject jsonInfo;
-    private boolean fail;
+    /**
+     * Time in milliseconds after which the 'info' JSON file is requested again
+     */
+    public static final long INFO_TTL = 10 * 60 * 1000;
+
+    /**
+     * Time in milliseconds before the 'info' JSON file is requested again after a failure, doubled after each
+     * consecutive failure up to {@link #INFO_TTL}
+     */
+    public static final long FIRST_RETRY = 30 * 1000;
+
+    //Read from the event dispatch thread by the side window, written under the lock
+    private volatile RestJsonMoodleClient RJMC;
+    private volatile JsonObject jsonInfo;
+    private volatile SubmissionLimits limits = SubmissionLimits.NONE;
+    private volatile boolean fail;
+    private volatile boolean unreachable;
+    private long infoTime;
+    private long retryDelay = FIRST_RETRY;
+    private long nextRetry;
 
     private String vplID;
     private String token;
@@ -108,6 +122,26 @@ public class ServiceGetter {
         return "<html>\n<head><style>pre {border: solid 1px #aaaaaa; border-radius: 5px; overflow-wrap: break-word; word-wrap: break-word; padding: 2px 5px; background-color: " + hexCode + "; white-space: pre-wrap;font-size: x-small;} body {padding: 3px 11px 2px 11px; font-family: sans-serif; font-size: small} div, p {font-family: sans-serif; font-size: small} </style></head>\n<body>\n" + intro + "\n</body>\n</html>";
     }
 
+    /**
+     * Return the limits of the files of a submission, given by the cached 'info' JSON file.
+     *
+     * @return the limits, or {@link SubmissionLimits#NONE} if the info could not be fetched
+     */
+    public SubmissionLimits getLimits() {
+        updateIfModified();
+        return fail ? SubmissionLimits.NONE : limits;
+    }
+
+    /**
+     * Return the last limits received from the web service, without requesting them again, so that the files can be
+     * checked while the web service cannot be reached.
+     *
+     * @return the limits, or {@link SubmissionLimits#NONE} if they were never received for the current VPL
+     */
+    public SubmissionLimits getLastKnownLimits() {
+        return limits;
+    }
+
     /**
      * This method calls the API to retrieve all the initial files of the exercise.
      *
@@ -132,6 +166,27 @@ public class ServiceGetter {
         }
     }
 
+    /**
+     * This method calls the API to download all the files of the user for the exercise into temporary files, without
+     * holding them all in memory, see {@link DownloadedFiles}.
+     *
+     * @return the downloaded files, to be closed once they are written to the project
+     * @throws IOException               If the answer cannot be read or a file cannot be stored
+     * @throws VplConnectionException    If the web service cannot be reached
+     * @throws MoodleWebServiceException If the web service answered with an exception
+     */
+    public DownloadedFiles downloadFiles() throws IOException, VplConnectionException, MoodleWebServiceException {
+        updateIfModified();
+        if (RJMC instanceof PooledMoodleClient pooled) {
+            return pooled.openFiles();
+        }
+        List<FileSync.RemoteFile> remoteFiles = new ArrayList<>();
+        for (VplFile vplFile : getFiles()) {
+            remoteFiles.add(FileSync.of(vplFile));
+        }
+        return DownloadedFiles.of(remoteFiles);
+    }
+
     /**
      * Returns a boolean which represents if the connection with the service has failed or not
      *
@@ -141,26 +196,59 @@ public class ServiceGetter {
         return fail;
     }
 
+    /**
+     * Return if the connection has failed because the web service could not be reached, see
+     * {@link ServiceUnreachableException}, rather than because it refused the request, e.g. for an invalid token.
+     *
+     * @return {@code true} if the same request may succeed once the connection is back
+     */
+    public boolean isUnreachable() {
+        return fail && unreachable;
+    }
+
     /**
      * Verifies that the ID of the exercise, the user token and the url haven't changed.
      * If they have, reinitialize the variables, make a new RestJsonMoodleClient from the new variables and try to retrieve a new 'info' JSON file.
+     * If they have not, the 'info' JSON file is only retrieved again once it is older than {@link #INFO_TTL}, or, if
+     * the last attempt failed, once its retry delay has elapsed, see {@link #FIRST_RETRY}.
      */
-    public void updateIfModified() {
+    public synchronized void updateIfModified() {
         PersistentStorage state = PersistentStorage.getInstance();
         String vplID = state.getProjectVplID(path);
         String token = state.userToken;
         String url = state.csToolsURL;
+        long now = System.currentTimeMillis();
         if (updateInputs(vplID, token, url)) {
+            //The limits of the previous exercise do not apply anymore
+            limits = SubmissionLimits.NONE;
             update();
+        } else if (fail ? now >= nextRetry : now - infoTime > INFO_TTL) {
+            updateInfo();
         }
     }
 
-    public void update() {
+    /**
+     * Make a new RestJsonMoodleClient and retrieve a new 'info' JSON file.
+     */
+    public synchronized void update() {
         RJMC = WebserviceClientFactory.createFromCustomProperties(vplID, token, url);
+        retryDelay = FIRST_RETRY;
+        updateInfo();
+    }
+
+    private void updateInfo() {
         try {
-            jsonInfo = RJMC.callService(VPLService.VPL_INFO);
+            JsonObject info = RJMC.callService(VPLService.VPL_INFO);
+            limits = SubmissionLimits.parse(info);
+            jsonInfo = info;
+            infoTime = System.currentTimeMillis();
+            retryDelay = FIRST_RETRY;
             fail = false;
         } catch (MoodleWebServiceException | VplConnectionException e) {
+            unreachable = e instanceof ServiceUnreachableException;
+            //A network failure must not last the whole session, the call is retried with a growing delay
+            nextRetry = System.currentTimeMillis() + retryDelay;
+            retryDelay = Math.min(retryDelay * 2, INFO_TTL);
             fail = true;
         }
     }
@@ -196,64 +284,35 @@ public class ServiceGetter {
     /**
      * Pull all the initial files or all the previously pushed files of the exercise.
      * It depends on the JsonArray given in argument.
+     * Only the files which differ from the local ones are written, see {@link FileSync}.
      *
      * @param files the VplFile array, if it comes from {@link #getReqFiles()}, it represents all the initial files and if it comes from {@link #getFiles()}, it represents all the previously pushed files
+     * @return the hash of each pulled file, indexed by its name relative to the source directory
      * @throws IOException If an error occurred during the interaction with local files.
      */
-    public static void writeFilesToDisk(VplFile[] files, String path) throws IOException {
-        LocalFileSystem fileSystem = LocalFileSystem.getInstance();
-        List<String> excludedFiles = FileUtils.scanExcludedList(path);
-        excludedFiles.add(CompSciToolsModuleBuilder.SPECIAL_FILE_NAME);
-     /*   excludedFiles.add(".idea/modules.xml");
-        excludedFiles.add(".idea/*.xml");
-        excludedFiles.add(".idea/");*/
-
-     //   System.out.println("Excluded files: " + excludedFiles);
-
-        // First delete all files
-        for (File file : Objects.requireNonNull(new File(path).listFiles())) {
-            if (!FileUtils.isExcluded(file.getName(), excludedFiles)) {
-          //      System.out.println("Deleting file: " + file.getName() + "(" + file.getAbsolutePath() + ")");
-                FileUtils.deleteIncludedFolder(file, path, excludedFiles);
-            }
-        }
-
-        File dir = new File(path +  File.separator + CompSciToolsModuleBuilder.SOURCE_DIRECTORY);
-        if (!dir.exists()) dir.mkdirs();
-
-
-        // Then recover from remote
+    public static Map<String, String> writeFilesToDisk(VplFile[] files, String path) throws IOException {
+        List<FileSync.RemoteFile> remoteFiles = new ArrayList<>();
         for (VplFile vplFile : files) {
-            // Do not import files registered in .vplignore
-            if (FileUtils.isExcluded(vplFile.getFullName(), excludedFiles))
-                continue;
-
-            //Write the file in the folder specified by the path
-            String fileName = vplFile.getFullName();
-            File file = new File(path + CompSciToolsModuleBuilder.SOURCE_DIRECTORY + File.separator + fileName);
-
-            //Retrieve the name of the directory of the file
-            int index = fileName.lastIndexOf('/');
-            String dirName = fileName.substring(0, index + 1);
-            File directory = new File(path + dirName);
-
-            //If the directories do not exist, we create it
-            if (!directory.exists()) directory.mkdirs();
-
-            FileOutputStream fos = new FileOutputStream(file);
-            vplFile.write(fos);
-
-            //Refresh the file's content
-            VirtualFile virtualFile = fileSystem.findFileByIoFile(file);
-            if (virtualFile != null) {
-                virtualFile.refresh(false, false);
-            }
+            remoteFiles.add(FileSync.of(vplFile));
         }
+        return writeFilesToDisk(remoteFiles, path);
+    }
 
-        //Refresh the project's root
-        VirtualFile virtualFile = fileSystem.findFileByIoFile(new File(path));
-        if (virtualFile != null) {
-            virtualFile.refresh(false, false);
+    /**
+     * Pull the given files, see {@link #writeFilesToDisk(VplFile[], String)}.
+     *
+     * @param files the files to write, such as the ones of {@link #downloadFiles()}
+     * @return the hash of each pulled file, indexed by its name relative to the source directory
+     * @throws IOException If an error occurred during the interaction with local files.
+     */
+    public static Map<String, String> writeFilesToDisk(List<FileSync.RemoteFile> files, String path) throws IOException {
+        IgnoreMatcher excluded = IgnoreMatcher.forDirectory(path).plus(CompSciToolsModuleBuilder.SPECIAL_FILE_NAME, ContentManifest.MANIFEST_FILE_NAME);
+
+        long start = System.nanoTime();
+        try {
+            return FileSync.synchronize(files, path, excluded);
+        } finally {
+            PluginMetrics.getInstance().recordPhase(PluginMetrics.WRITING_FILES, start);
         }
     }
 }
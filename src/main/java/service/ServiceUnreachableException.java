@@ -0,0 +1,30 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import vplwsclient.exception.VplConnectionException;
+
+/**
+ * Exception thrown when the web service cannot be reached at all: no connection, a timeout, or a server which is
+ * temporarily unavailable. Unlike the other connection failures, such as an answer which cannot be read, the same
+ * call may succeed later.
+ */
+public class ServiceUnreachableException extends VplConnectionException {
+
+    public ServiceUnreachableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import vplwsclient.RestJsonMoodleClient.VPLService;
+import vplwsclient.exception.MoodleWebServiceException;
+import vplwsclient.exception.VplConnectionException;
+
+import javax.json.JsonObject;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This class deduplicates the identical read-only calls to the web service.
+ * The callers asking for the same service of the same VPL with the same token while a call is in flight share its
+ * answer, and the answer is still served for {@link #RESULT_TTL} milliseconds after it arrived.
+ * Any other call to a VPL, which may modify it, forgets the answers kept for this VPL.
+ * The cancellation of a call only concerns its own caller: the callers who were waiting for it make the call again.
+ */
+public final class SingleFlight {
+
+    /**
+     * Time in milliseconds during which an answer is served to the late callers
+     */
+    public static final long RESULT_TTL = 2000;
+
+    /**
+     * The services whose calls do not modify the VPL
+     */
+    private static final Set<String> READ_ONLY_SERVICES = Set.of("VPL_INFO", "VPL_GET_SUBRESTRICTIONS", "VPL_GET_LAST_EVALUATION");
+
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+
+    /**
+     * A call to the web service, made by the first of the identical callers.
+     */
+    @FunctionalInterface
+    public interface Call {
+        JsonObject call(VPLService service) throws VplConnectionException, MoodleWebServiceException;
+    }
+
+    /**
+     * Call a service, or join the identical call in flight.
+     *
+     * @param vplID   the ID of the VPL
+     * @param token   the token of the user
+     * @param service the service to call
+     * @param call    the call to make if no identical call is in flight
+     * @return the answer of the web service
+     * @throws VplConnectionException    If the web service cannot be reached
+     * @throws MoodleWebServiceException If the web service answered with an exception
+     * @throws CancellationException     If the call or the wait of this caller was interrupted
+     */
+    public JsonObject call(String vplID, String token, VPLService service, Call call)
+            throws VplConnectionException, MoodleWebServiceException {
+        if (!READ_ONLY_SERVICES.contains(service.name())) {
+            //The answers kept for this VPL may be outdated by this call
+            flights.keySet().removeIf(key -> key.vplID.equals(vplID));
+            return call.call(service);
+        }
+
+        Key key = new Key(vplID, token, service.name());
+        while (true) {
+            Flight current = flights.get(key);
+            if (current != null && current.isFresh()) {
+                JsonObject answer = current.await();
+                if (answer != null) {
+                    return answer;
+                }
+                //The caller who made the call was cancelled, which does not concern this one: it is made again
+                continue;
+            }
+            Flight flight = new Flight();
+            boolean leading = current == null ? flights.putIfAbsent(key, flight) == null : flights.replace(key, current, flight);
+            if (leading) {
+                return flight.run(service, call, () -> flights.remove(key, flight));
+            }
+            //Another caller started the same call in the meantime
+        }
+    }
+
+    private record Key(String vplID, String token, String service) {
+    }
+
+    /**
+     * A call to the web service, shared by all the callers who asked for it.
+     */
+    private static final class Flight {
+
+        private final CompletableFuture<JsonObject> answer = new CompletableFuture<>();
+        private volatile long answeredAt;
+
+        boolean isFresh() {
+            return !answer.isDone() || System.currentTimeMillis() - answeredAt < RESULT_TTL;
+        }
+
+        JsonObject run(VPLService service, Call call, Runnable onFailure)
+                throws VplConnectionException, MoodleWebServiceException {
+            try {
+                JsonObject result = call.call(service);
+                answeredAt = System.currentTimeMillis();
+                answer.complete(result);
+                return result;
+            } catch (VplConnectionException | MoodleWebServiceException | RuntimeException | Error e) {
+                //A failure is shared with the waiting callers but is not kept
+                onFailure.run();
+                answer.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        /**
+         * Wait for the answer of the call.
+         *
+         * @return the answer, or {@code null} if the call was cancelled and must be made again
+         */
+        JsonObject await() throws VplConnectionException, MoodleWebServiceException {
+            try {
+                return answer.get();
+            } catch (CancellationException e) {
+                //The failure of the call is a cancellation
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof VplConnectionException connectionException) {
+                    throw connectionException;
+                }
+                if (cause instanceof MoodleWebServiceException webServiceException) {
+                    throw webServiceException;
+                }
+                if (cause instanceof Error error) {
+                    throw error;
+                }
+                throw (RuntimeException) cause;
+            }
+        }
+    }
+}
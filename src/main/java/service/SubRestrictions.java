@@ -0,0 +1,129 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * This class represents the restrictions of the submissions of an exercise, as returned by VPL_GET_SUBRESTRICTIONS.
+ * A {@code null} value means that there is no such restriction.
+ * The time left is kept relative to the monotonic clock of {@link System#nanoTime()}, so the countdown computed from it
+ * does not depend on changes of the system clock.
+ */
+public class SubRestrictions {
+
+    /**
+     * Restrictions used when the web service could not be reached
+     */
+    public static final SubRestrictions NONE = new SubRestrictions(null, null, null, null, 0);
+
+    private final Long timeLeft;
+    private final Integer freeEvaluations;
+    private final Integer nbEvaluations;
+    private final String reductionByEvaluation;
+    private final long syncTime;
+
+    public SubRestrictions(Long timeLeft, Integer freeEvaluations, Integer nbEvaluations, String reductionByEvaluation, long syncTime) {
+        this.timeLeft = timeLeft;
+        this.freeEvaluations = freeEvaluations;
+        this.nbEvaluations = nbEvaluations;
+        this.reductionByEvaluation = reductionByEvaluation;
+        this.syncTime = syncTime;
+    }
+
+    /**
+     * Parse the response of VPL_GET_SUBRESTRICTIONS.
+     *
+     * @param values   the JSON response of the web service
+     * @param syncTime the value of {@link System#nanoTime()} when the server computed the time left
+     * @return the parsed restrictions
+     */
+    public static SubRestrictions parse(JsonObject values, long syncTime) {
+        Long timeLeft = null;
+        JsonValue timeLeftValue = values.get("timeleft");
+        if (timeLeftValue != null && timeLeftValue.getValueType() == JsonValue.ValueType.NUMBER) {
+            timeLeft = ((JsonNumber) timeLeftValue).longValueExact();
+        }
+
+        String reductionByEvaluation = null;
+        JsonValue reductionByEvaluationValue = values.get("reductionbyevaluation");
+        if (reductionByEvaluationValue != null && reductionByEvaluationValue.getValueType() == JsonValue.ValueType.STRING) {
+            reductionByEvaluation = ((JsonString) reductionByEvaluationValue).getString();
+            if (!reductionByEvaluation.endsWith("%")) {
+                reductionByEvaluation += "pts";
+            }
+        }
+
+        return new SubRestrictions(timeLeft, getInteger(values, "freeevaluations"), getInteger(values, "nevaluations"), reductionByEvaluation, syncTime);
+    }
+
+    private static Integer getInteger(JsonObject values, String key) {
+        JsonValue value = values.get(key);
+        if (value != null && value.getValueType() == JsonValue.ValueType.NUMBER) {
+            return ((JsonNumber) value).intValue();
+        }
+        return null;
+    }
+
+    /**
+     * Return the time left to submit, in seconds, when the restrictions were fetched
+     */
+    public Long getTimeLeft() {
+        return timeLeft;
+    }
+
+    /**
+     * Return the number of evaluations without penalty
+     */
+    public Integer getFreeEvaluations() {
+        return freeEvaluations;
+    }
+
+    /**
+     * Return the number of evaluations already done
+     */
+    public Integer getNbEvaluations() {
+        return nbEvaluations;
+    }
+
+    /**
+     * Return the penalty of each evaluation after the free ones, followed by its unit ("%" or "pts")
+     */
+    public String getReductionByEvaluation() {
+        return reductionByEvaluation;
+    }
+
+    /**
+     * Return the value of {@link System#nanoTime()} when the server computed the time left
+     */
+    public long getSyncTime() {
+        return syncTime;
+    }
+
+    /**
+     * Return the time left to submit now, in milliseconds, which is negative once the time is up,
+     * or {@code null} if there is no time limit
+     */
+    public Long getRemainingMillis() {
+        if (timeLeft == null) {
+            return null;
+        }
+        return timeLeft * 1000 - (System.nanoTime() - syncTime) / 1_000_000;
+    }
+}
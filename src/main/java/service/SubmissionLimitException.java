@@ -0,0 +1,38 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import java.util.List;
+
+/**
+ * Exception thrown when the files of a submission exceed the limits of the exercise, see {@link SubmissionLimits}.
+ */
+public class SubmissionLimitException extends Exception {
+
+    private final List<String> patterns;
+
+    public SubmissionLimitException(String message, List<String> patterns) {
+        super(message);
+        this.patterns = patterns;
+    }
+
+    /**
+     * Return the .vplignore patterns which would exclude the files to blame
+     */
+    public List<String> getPatterns() {
+        return patterns;
+    }
+}
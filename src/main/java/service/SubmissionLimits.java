@@ -0,0 +1,172 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.util.text.StringUtil;
+
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This class represents the limits of the files of a submission, as returned by VPL_INFO.
+ * A {@code null} value means that there is no such limit.
+ * The files are checked against the limits before they are read, so a submission the VPL would refuse fails at once,
+ * with the files to blame and the .vplignore patterns which would fix it.
+ */
+public class SubmissionLimits {
+
+    /**
+     * Limits used when the exercise info could not be fetched
+     */
+    public static final SubmissionLimits NONE = new SubmissionLimits(null, null);
+
+    /**
+     * Maximum number of files or patterns given in a report
+     */
+    private static final int MAX_REPORTED = 5;
+
+    private final Integer maxFiles;
+    private final Long maxFileSize;
+
+    public SubmissionLimits(Integer maxFiles, Long maxFileSize) {
+        this.maxFiles = maxFiles;
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Parse the limits given in the response of VPL_INFO.
+     *
+     * @param info the JSON response of the web service
+     * @return the parsed limits, a limit of 0 meaning no limit
+     */
+    public static SubmissionLimits parse(JsonObject info) {
+        Long maxFiles = getLong(info, "maxfiles");
+        Long maxFileSize = getLong(info, "maxfilesize");
+        return new SubmissionLimits(maxFiles == null || maxFiles <= 0 ? null : maxFiles.intValue(),
+                maxFileSize == null || maxFileSize <= 0 ? null : maxFileSize);
+    }
+
+    private static Long getLong(JsonObject values, String key) {
+        JsonValue value = values.get(key);
+        if (value != null && value.getValueType() == JsonValue.ValueType.NUMBER) {
+            return ((JsonNumber) value).longValue();
+        }
+        if (value != null && value.getValueType() == JsonValue.ValueType.STRING) {
+            try {
+                return Long.parseLong(((JsonString) value).getString().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the maximum number of files of a submission
+     */
+    public Integer getMaxFiles() {
+        return maxFiles;
+    }
+
+    /**
+     * Return the maximum size of each file, in bytes
+     */
+    public Long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * Check the files of a submission against the limits, using only their number and their size on disk.
+     *
+     * @param files the files to submit
+     * @param root  the directory of the .vplignore file, the names are relative to
+     * @throws SubmissionLimitException If a limit is exceeded
+     */
+    public void check(List<File> files, String root) throws SubmissionLimitException {
+        String prefix = root.replace(File.separator, "/") + "/";
+        List<String> problems = new ArrayList<>();
+        Set<String> patterns = new LinkedHashSet<>();
+
+        if (maxFileSize != null) {
+            List<File> tooLarge = new ArrayList<>();
+            for (File file : files) {
+                if (file.length() > maxFileSize) {
+                    tooLarge.add(file);
+                }
+            }
+            if (!tooLarge.isEmpty()) {
+                tooLarge.sort(Comparator.comparingLong(File::length).reversed());
+                StringBuilder problem = new StringBuilder(tooLarge.size() + " file(s) exceed the limit of "
+                        + StringUtil.formatFileSize(maxFileSize) + " per file:");
+                for (File file : tooLarge.subList(0, Math.min(MAX_REPORTED, tooLarge.size()))) {
+                    String name = relativeName(file, prefix);
+                    problem.append("<br>- ").append(name).append(" (").append(StringUtil.formatFileSize(file.length())).append(")");
+                    patterns.add(name);
+                }
+                problems.add(problem.toString());
+            }
+        }
+
+        if (maxFiles != null && files.size() > maxFiles) {
+            problems.add("The project has " + files.size() + " files, the exercise accepts at most " + maxFiles + ".");
+            patterns.addAll(largestDirectories(files, prefix, files.size() - maxFiles));
+        }
+
+        if (!problems.isEmpty()) {
+            throw new SubmissionLimitException(String.join("<br>", problems), new ArrayList<>(patterns));
+        }
+    }
+
+    /**
+     * Return the patterns of the directories with the most files, enough of them to remove the given number of files.
+     */
+    private static List<String> largestDirectories(List<File> files, String prefix, int excess) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (File file : files) {
+            String name = relativeName(file, prefix);
+            int slash = name.indexOf('/');
+            if (slash > 0) {
+                counts.merge(name.substring(0, slash), 1, Integer::sum);
+            }
+        }
+        List<Map.Entry<String, Integer>> directories = new ArrayList<>(counts.entrySet());
+        directories.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        List<String> patterns = new ArrayList<>();
+        int removed = 0;
+        for (Map.Entry<String, Integer> directory : directories) {
+            if (removed >= excess || patterns.size() >= MAX_REPORTED) {
+                break;
+            }
+            patterns.add(directory.getKey() + "/**");
+            removed += directory.getValue();
+        }
+        return patterns;
+    }
+
+    private static String relativeName(File file, String prefix) {
+        return file.getPath().replace(File.separator, "/").replace(prefix, "");
+    }
+}
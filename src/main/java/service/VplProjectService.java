@@ -0,0 +1,62 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+
+/**
+ * This project service owns the ServiceGetter shared by the actions, the side window and the status bar widgets of a project.
+ * This way, the exercise info is requested once per project instead of once per component.
+ */
+public final class VplProjectService {
+
+    private final Project project;
+
+    private ServiceGetter servGet;
+
+    public VplProjectService(@NotNull Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Return the instance of the service for the given project.
+     *
+     * @param project the current project
+     * @return the VplProjectService of the project
+     */
+    public static VplProjectService getInstance(@NotNull Project project) {
+        return project.getService(VplProjectService.class);
+    }
+
+    /**
+     * Return the ServiceGetter of the project, creating it at the first call.
+     * The exercise info it holds is only requested again when it has expired or when the VPL ID, the token or the URL have changed.
+     *
+     * @return the shared ServiceGetter
+     */
+    public synchronized ServiceGetter getServiceGetter() {
+        String path = project.getBasePath() + File.separator;
+        if (servGet == null || servGet.isPathModified(path)) {
+            servGet = new ServiceGetter(path);
+        } else {
+            servGet.updateIfModified();
+        }
+        return servGet;
+    }
+}
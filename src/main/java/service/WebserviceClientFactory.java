@@ -38,6 +38,15 @@ public final class WebserviceClientFactory {
 	
 	private static final IdeaPluginDescriptor PLUGIN = PluginManagerCore.getPlugin(PluginId.getId("cstools.moodle.plugin"));
 	public static final String SOURCE = ""; // IntelliJ-" + PLUGIN.  () + ".v" + PLUGIN.getVersion();
+
+	private static volatile MoodleTransport transport = HttpMoodleTransport.SHARED;
+
+	/**
+	 * Change the transport used by the clients built from now on.
+	 */
+	public static void setTransport(MoodleTransport newTransport) {
+		transport = newTransport;
+	}
 	
 	/**
 	 * Builds a {@link RestJsonMoodleClient} from current PersistentStorage.
@@ -62,13 +71,15 @@ public final class WebserviceClientFactory {
         }
 	}
 	
+	/**
+	 * Builds a {@link RestJsonMoodleClient} sending its requests through the shared transport.
+	 */
 	public static RestJsonMoodleClient createFromCustomProperties(String vplID, String token, String url) {
 		/*System.out.println("VPL ID: " + vplID);
 		System.out.println("Token: " + token);
 		System.out.println("URL: " + url);
 		System.out.println("SOURCE: " + SOURCE);*/
-		vplID += "&wstoken=" + token;
-		RestJsonMoodleClient wsclient = new RestJsonMoodleClient(vplID, token, url);
+		RestJsonMoodleClient wsclient = new PooledMoodleClient(vplID, token, url, transport);
 		wsclient.setSource(SOURCE);
 		return wsclient;
 	}
@@ -34,9 +34,9 @@ public class SettingsComponent {
    // private final JRadioButton csToolsURLButton = new JRadioButton("CompSci Tools");
    // private final JRadioButton customURLButton = new JRadioButton("Custom:");
     private final JPasswordField tokenPassword = new JPasswordField();
-    /*private final JRadioButton recommendedButton = new JRadioButton("Listen to execution server via websocket (recommended)");
-    private final JRadioButton compatibilityButton = new JRadioButton("Wait for a few seconds (compatibility)");
-*/
+    private final JRadioButton recommendedButton = new JRadioButton("Listen to execution server via websocket (recommended)");
+    private final JRadioButton compatibilityButton = new JRadioButton("Poll for the result (compatibility)");
+
     public SettingsComponent() {
         //The buttons group of URL RadioButtons
      /*   ButtonGroup URLRadioButtons = new ButtonGroup();
@@ -46,10 +46,10 @@ public class SettingsComponent {
         customURLText.setEnabled(false);*/
 
         //The buttons group of way of evaluate RadioButtons
-        /*ButtonGroup evaluationRadioButtons = new ButtonGroup();
+        ButtonGroup evaluationRadioButtons = new ButtonGroup();
         evaluationRadioButtons.add(recommendedButton);
         evaluationRadioButtons.add(compatibilityButton);
-        recommendedButton.setSelected(true);*/
+        recommendedButton.setSelected(true);
 
         myMainPanel = FormBuilder.createFormBuilder()
                 /*   .addComponent(new JBLabel("VPL Webservice URL: "), 1)
@@ -58,9 +58,9 @@ public class SettingsComponent {
                  .addComponent(customURLText, 1)*/
                 .addComponent(new JBLabel("User Security (Token): "), 1)
                 .addComponent(tokenPassword)
-               /* .addComponent(new JBLabel("Evaluation method: "), 1)
+                .addComponent(new JBLabel("Evaluation method: "), 1)
                 .addComponent(recommendedButton)
-                .addComponent(compatibilityButton)*/
+                .addComponent(compatibilityButton)
                 .addComponentFillVertically(new JPanel(), 0)
                 .getPanel();
     }
@@ -113,19 +113,12 @@ public class SettingsComponent {
         tokenPassword.setText(newText);
     }
 
-   /* public boolean getRecommendedRadioStatus() {
+    public boolean getRecommendedRadioStatus() {
         return recommendedButton.isSelected();
     }
 
     public void setRecommendedRadioStatus(boolean newStatus) {
         recommendedButton.setSelected(newStatus);
+        compatibilityButton.setSelected(!newStatus);
     }
-
-    public boolean getCompatibilityRadioStatus() {
-        return compatibilityButton.isSelected();
-    }
-
-    public void setCompatibilityRadioStatus(boolean newStatus) {
-        compatibilityButton.setSelected(newStatus);
-    }*/
 }
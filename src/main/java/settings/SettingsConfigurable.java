@@ -64,8 +64,7 @@ public class SettingsConfigurable implements Configurable {
         modified |= mySettingsComponent.getCsToolsRadioStatus() != settings.csToolsRadioButtonSelected;
         modified |= mySettingsComponent.getCustomRadioStatus() != settings.customRadioButtonSelected;
         modified |= */!mySettingsComponent.getToken().equals(settings.userToken);
-        /*modified |= mySettingsComponent.getRecommendedRadioStatus() != settings.recommendedRadioButtonSelected;
-        modified |= mySettingsComponent.getCompatibilityRadioStatus() != settings.compatibilityRadioButtonSelected;*/
+        modified |= mySettingsComponent.getRecommendedRadioStatus() != settings.recommendedRadioButtonSelected;
         return modified;
     }
 
@@ -79,8 +78,7 @@ public class SettingsConfigurable implements Configurable {
         settings.csToolsRadioButtonSelected = mySettingsComponent.getCsToolsRadioStatus();
         settings.customRadioButtonSelected = mySettingsComponent.getCustomRadioStatus();*/
         settings.userToken = mySettingsComponent.getToken();
-      /*  settings.recommendedRadioButtonSelected = mySettingsComponent.getRecommendedRadioStatus();
-        settings.compatibilityRadioButtonSelected = mySettingsComponent.getCompatibilityRadioStatus();*/
+        settings.recommendedRadioButtonSelected = mySettingsComponent.getRecommendedRadioStatus();
     }
 
     /**
@@ -93,8 +91,7 @@ public class SettingsConfigurable implements Configurable {
         mySettingsComponent.setCsToolsRadioStatus(settings.csToolsRadioButtonSelected);
         mySettingsComponent.setCustomRadioStatus(settings.customRadioButtonSelected);*/
         mySettingsComponent.setToken(settings.userToken);
-      /*  mySettingsComponent.setRecommendedRadioStatus(settings.recommendedRadioButtonSelected);
-        mySettingsComponent.setCompatibilityRadioStatus(settings.compatibilityRadioButtonSelected);*/
+        mySettingsComponent.setRecommendedRadioStatus(settings.recommendedRadioButtonSelected);
     }
 
 
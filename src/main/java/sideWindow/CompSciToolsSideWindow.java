@@ -23,11 +23,18 @@ import com.intellij.openapi.actionSystem.ActionToolbar;
 import com.intellij.openapi.actionSystem.DefaultActionGroup;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.colors.EditorColorsManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.ui.Gray;
 import com.intellij.ui.treeStructure.Tree;
+import com.intellij.util.ui.UIUtil;
+import notifications.CompSciToolsNotifier;
 import org.jetbrains.annotations.NotNull;
+import service.EvaluationCache;
 import service.PersistentStorage;
+import service.PluginMetrics;
+import service.PluginScheduler;
 import service.ServiceGetter;
+import service.VplProjectService;
 import ui.icons.CompSciToolsColors;
 import vplwsclient.RestJsonMoodleClient.VPLService;
 import vplwsclient.exception.MoodleWebServiceException;
@@ -41,9 +48,6 @@ import javax.swing.plaf.basic.BasicProgressBarUI;
 import javax.swing.text.SimpleAttributeSet;
 import javax.swing.text.StyleConstants;
 import javax.swing.text.StyledDocument;
-import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
-import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import java.awt.*;
 import java.awt.event.KeyAdapter;
@@ -114,19 +118,24 @@ public class CompSciToolsSideWindow {
 
     /////////Variables////////
     /**
-     * The array of the different tests, represented by the class TestResult
+     * The tree model of the JTree which is used to show all the tests and their result
      */
-    private List<TestResult> listTestResult;
+    private TestResultTreeModel treeModel;
 
     /**
-     * The tree model of the JTree which is used to show all the tests and their result
+     * A class which is used to get all the important stuff from the web API, {@code null} until the exercise is loaded
+     */
+    private volatile ServiceGetter servGet;
+
+    /**
+     * The project of the side window
      */
-    private DefaultTreeModel treeModel;
+    private final Project project;
 
     /**
-     * A class which is used to get all the important stuff from the web API
+     * Appended to the date of the last evaluation shown while the web service cannot be reached
      */
-    private final ServiceGetter servGet;
+    private static final String STALE_SUFFIX = " - last known results, CompSci Tools cannot be reached";
 
     private final String DARK_HEX = "#444444";
     private final String LIGHT_HEX = "#F4F4F4";
@@ -135,11 +144,11 @@ public class CompSciToolsSideWindow {
      * The constructor which is used to set multiple texts and an action listener.
      * However, the JTree is initialized in a different method {@link #createUIComponents() createUIComponents}
      *
-     * @param path the path to the special file which contains the VPL ID
+     * @param project the project of the side window
+     * @param path    the path to the special file which contains the VPL ID
      */
-    public CompSciToolsSideWindow(String path) {
-        //Initialize the ServiceGetter
-        this.servGet = new ServiceGetter(path);
+    public CompSciToolsSideWindow(Project project, String path) {
+        this.project = project;
 
      /*   System.out.println("Side Window started");
         System.out.println(this.servGet.getDescription());
@@ -160,7 +169,9 @@ public class CompSciToolsSideWindow {
             public void lookAndFeelChanged(@NotNull LafManager lafManager) {
                 try {
                     System.out.println("uiSettingsChanged");
-                    descriptionExercise.setText(servGet.getDescription());
+                    if (servGet != null) {
+                        descriptionExercise.setText(servGet.getDescription());
+                    }
                     String currentResult = messageResult.getText();
 
                     final String style1 = "background-color: " + LIGHT_HEX;
@@ -204,84 +215,66 @@ public class CompSciToolsSideWindow {
            // e.printStackTrace();
         }
 
-        if (servGet.hasFailed()) {
-
-            wsURL.setVisible(true);
-            PersistentStorage state = PersistentStorage.getInstance();
-            String vplID = state.getProjectVplID(path);
-            exerciseNameTextPane.setText("Unknown Project: " + vplID);
-
-            wsText.setVisible(true);
-
-            wsURL.addKeyListener(new KeyAdapter() {
-                @Override
-                public void keyReleased(KeyEvent keyEvent) {
-                    //System.out.println(wsURL.getText());
-                    if (wsURL.getText().trim().isEmpty()) {
-                        clearValidationError();
-                    } else {
-                        try {
-                            URI uri = URI.create(wsURL.getText());
-                            URL url = uri.toURL(); // Convert only after validation
-                            if (url.getHost().toLowerCase().equals("compsci.tools")) {
-                                String queryString = url.getQuery();
-                                Map<String, String> params = new HashMap<>();
-                                if (queryString != null && !queryString.isEmpty()) {
-                                    String[] pairs = queryString.split("&");
-                                    for (String pair : pairs) {
-                                        int idx = pair.indexOf("=");
-                                        if (idx > 0) {
-                                            String key = URLDecoder.decode(pair.substring(0, idx), StandardCharsets.UTF_8);
-                                            String value = URLDecoder.decode(pair.substring(idx + 1), StandardCharsets.UTF_8);
-                                            params.put(key, value);
-                                        }
+        //Shown if the connection with the web service fails, see showExercise
+        wsURL.setVisible(false);
+        wsText.setVisible(false);
+        PersistentStorage state = PersistentStorage.getInstance();
+        wsURL.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyReleased(KeyEvent keyEvent) {
+                //System.out.println(wsURL.getText());
+                if (wsURL.getText().trim().isEmpty()) {
+                    clearValidationError();
+                } else {
+                    try {
+                        URI uri = URI.create(wsURL.getText());
+                        URL url = uri.toURL(); // Convert only after validation
+                        if (url.getHost().toLowerCase().equals("compsci.tools")) {
+                            String queryString = url.getQuery();
+                            Map<String, String> params = new HashMap<>();
+                            if (queryString != null && !queryString.isEmpty()) {
+                                String[] pairs = queryString.split("&");
+                                for (String pair : pairs) {
+                                    int idx = pair.indexOf("=");
+                                    if (idx > 0) {
+                                        String key = URLDecoder.decode(pair.substring(0, idx), StandardCharsets.UTF_8);
+                                        String value = URLDecoder.decode(pair.substring(idx + 1), StandardCharsets.UTF_8);
+                                        params.put(key, value);
                                     }
                                 }
-                                if (params.containsKey("id") && params.containsKey("wstoken")) {
-                                    try {
-                                        int vplId = Integer.parseInt(params.get("id"));
-                                        String wsToken = params.get("wstoken");
-
-                                        Pattern pattern = Pattern.compile("^[a-zA-Z0-9]+$");
-                                        Matcher matcher = pattern.matcher(wsToken);
-
-                                        if (wsToken.length() > 10 && matcher.matches()) {
-                                            clearValidationError();
-                                            state.userToken = wsToken;
-                                            state.vplID = vplId + "";
-                                            servGet.update();
-                                            if (servGet.hasFailed()) {
-                                                showValidationError("Unknown project: " + servGet.getExerciseName());
-                                            } else {
-                                                wsURL.setVisible(false);
-                                                wsText.setVisible(false);
-                                                descriptionExercise.setText(servGet.getDescription());
-                                                exerciseNameTextPane.setText(servGet.getExerciseName());
-                                                initResults(path);
-                                            }
-                                        } else {
-                                            showValidationError("Invalid service token");
-                                        }
-                                    } catch (NumberFormatException e) {
-                                        showValidationError("Invalid service ID");
+                            }
+                            if (params.containsKey("id") && params.containsKey("wstoken")) {
+                                try {
+                                    int vplId = Integer.parseInt(params.get("id"));
+                                    String wsToken = params.get("wstoken");
+
+                                    Pattern pattern = Pattern.compile("^[a-zA-Z0-9]+$");
+                                    Matcher matcher = pattern.matcher(wsToken);
+
+                                    if (wsToken.length() > 10 && matcher.matches()) {
+                                        clearValidationError();
+                                        state.userToken = wsToken;
+                                        state.vplID = vplId + "";
+                                        loadExercise(path, true, false);
+                                    } else {
+                                        showValidationError("Invalid service token");
                                     }
+                                } catch (NumberFormatException e) {
+                                    showValidationError("Invalid service ID");
                                 }
-                            } else {
-                                showValidationError("Invalid Webservice URL server");
                             }
-                        } catch (MalformedURLException e) {
-                            showValidationError("Invalid Webservice URL");
+                        } else {
+                            showValidationError("Invalid Webservice URL server");
                         }
+                    } catch (MalformedURLException e) {
+                        showValidationError("Invalid Webservice URL");
                     }
                 }
-            });
-        } else {
-            wsURL.setVisible(false);
-            wsText.setVisible(false);
-        }
+            }
+        });
 
-       //Show the exercise name
-        exerciseNameTextPane.setText(servGet.getExerciseName());
+        //Show that the exercise is being retrieved
+        clearValidationError();
 
         // Add action bar
         final ActionManager actionManager = ActionManager.getInstance();
@@ -296,20 +289,54 @@ public class CompSciToolsSideWindow {
 actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
         csToolBar.add(actionToolbar.getComponent());
 
-        //The description of the exercise
-        descriptionExercise.setText(servGet.getDescription());
-
         //Add an action listener of the reload button
-        reloadButton.addActionListener(e -> {
-            servGet.update();
-            if (!CompSciToolsSideWindowFactory.changeCsw(path)) {
-                //If the button was pressed without a change of VPL ID, reload the description and name of the exercise
-                descriptionExercise.setText(servGet.getDescription());
-                exerciseNameTextPane.setText(servGet.getExerciseName());
-                initResults(path);
+        reloadButton.addActionListener(e -> loadExercise(path, true, true));
+
+        //The exercise is retrieved in the background, the EDT must not wait for the web service
+        loadExercise(path, false, false);
+    }
+
+    /**
+     * Retrieve the exercise in the background, then show its name, its description and its last results.
+     *
+     * @param path   Path to the project root.
+     * @param update {@code true} to request the exercise again, even if it has not expired
+     * @param reload {@code true} if the reload button was pressed, the side window of another VPL ID may then replace this one
+     */
+    private void loadExercise(String path, boolean update, boolean reload) {
+        PluginScheduler.getInstance().executeBlocking("Load exercise", project, () -> {
+            ServiceGetter serviceGetter = VplProjectService.getInstance(project).getServiceGetter();
+            if (update) {
+                serviceGetter.update();
             }
+            String name = serviceGetter.getExerciseName();
+            String description = serviceGetter.getDescription();
+            UIUtil.invokeLaterIfNeeded(() -> {
+                servGet = serviceGetter;
+                if (reload && CompSciToolsSideWindowFactory.changeCsw(project, path)) {
+                    //The VPL ID has changed, the side window of the new one is shown instead
+                    return;
+                }
+                showExercise(path, name, description);
+            });
         });
+    }
 
+    /**
+     * Show the exercise retrieved by {@link #loadExercise(String, boolean, boolean)}, or the field to connect again if
+     * the connection with the web service has failed.
+     */
+    private void showExercise(String path, String name, String description) {
+        boolean failed = servGet.hasFailed();
+        wsURL.setVisible(failed);
+        wsText.setVisible(failed);
+        if (failed && !wsURL.getText().trim().isEmpty()) {
+            //The URL typed by the user was not accepted
+            showValidationError("Unknown project: " + name);
+        } else {
+            exerciseNameTextPane.setText(failed ? "Unknown Project: " + PersistentStorage.getInstance().getProjectVplID(path) : name);
+            descriptionExercise.setText(description);
+        }
         initResults(path);
     }
 
@@ -323,13 +350,33 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
 
     /**
      * Set the result panel of the SideWindow.
+     * The last evaluation stored on disk is shown at once, then the last evaluation is retrieved in the background and
+     * shown only if it is another submission.
      *
      * @param path Path to the project root.
      */
     public void initResults(String path) {
        // System.out.println("initResults");
+        ServiceGetter serviceGetter = servGet;
+        if (serviceGetter == null) {
+            //The exercise is still being loaded, its results are shown once it is
+            return;
+        }
+
+        String vplID = PersistentStorage.getInstance().getProjectVplID(path);
+        JsonObject cachedEvaluation = EvaluationCache.load(vplID);
+
         //Set a different text depending on if the connection with the API has failed or not
-        if (servGet.hasFailed()) {
+        if (serviceGetter.hasFailed()) {
+            if (cachedEvaluation != null) {
+                //Show the last known results, marked as such, rather than nothing while offline
+                UIUtil.invokeLaterIfNeeded(() -> {
+                    showLastEvaluation(cachedEvaluation, STALE_SUFFIX);
+                    //Then report why they may not be up to date
+                    CompSciToolsNotifier.notifyConnectionError(project, false);
+                });
+                return;
+            }
             gradeResult.setText("Expired security token.");
             setResultGrade("Expired security token.");
             setResultsTree("", "");
@@ -338,18 +385,40 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
             return;
         }
 
-        // Retrieve last evaluation
-        JsonObject lastEvaluation;
-        try {
-            lastEvaluation = servGet.getRJMC().callService(VPLService.VPL_GET_LAST_EVALUATION);
-        } catch (VplConnectionException | MoodleWebServiceException e) {
-            gradeResult.setText("Not evaluated yet");
-            setTextsVisible(false);
-            setResultGrade("Not evaluated yet");
-            setResultsTree("", "");
-            return;
+        if (cachedEvaluation != null) {
+            UIUtil.invokeLaterIfNeeded(() -> showLastEvaluation(cachedEvaluation, ""));
         }
 
+        // Retrieve last evaluation
+        PluginScheduler.getInstance().executeBlocking("Revalidate last evaluation", project, () -> {
+            JsonObject lastEvaluation;
+            try {
+                lastEvaluation = serviceGetter.getRJMC().callService(VPLService.VPL_GET_LAST_EVALUATION);
+            } catch (VplConnectionException | MoodleWebServiceException e) {
+                if (cachedEvaluation == null) {
+                    UIUtil.invokeLaterIfNeeded(() -> {
+                        gradeResult.setText("Not evaluated yet");
+                        setTextsVisible(false);
+                        setResultGrade("Not evaluated yet");
+                        setResultsTree("", "");
+                    });
+                }
+                return;
+            }
+            if (EvaluationCache.isOtherSubmission(cachedEvaluation, lastEvaluation)) {
+                EvaluationCache.store(vplID, lastEvaluation);
+                UIUtil.invokeLaterIfNeeded(() -> showLastEvaluation(lastEvaluation, ""));
+            }
+        });
+    }
+
+    /**
+     * Show the result of the last evaluation in the result panel.
+     *
+     * @param lastEvaluation the response of VPL_GET_LAST_EVALUATION
+     * @param suffix         appended to the date of the evaluation, to mark results which may not be up to date
+     */
+    private void showLastEvaluation(JsonObject lastEvaluation, String suffix) {
         if (lastEvaluation.get("grade").getValueType() == JsonValue.ValueType.NULL) {
             gradeResult.setText("Not evaluated");
             setTextsVisible(false);
@@ -371,10 +440,10 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
         } else
             date = "Unknown date";
 
-        setResultsTree(lastEvaluation.getString("evaluation"), date);
+        setResultsTree(lastEvaluation.getString("evaluation"), date + suffix);
         setResultGrade(lastEvaluation.getString("grade"));
-        //Expand the tree later at the end of the execution of this method
-        setNodeExpanded(resultsTree, (DefaultMutableTreeNode) resultsTree.getModel().getRoot());
+        //Expand the suites with failed tests
+        expandFailures();
         setTextsVisible(true);
     }
 
@@ -383,11 +452,12 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
      */
     private void createUIComponents() {
         //Make a tree with only a root. It will be expanded when an evaluation happens
-        DefaultMutableTreeNode top = new DefaultMutableTreeNode("");
-        resultsTree = new Tree(top);
-        treeModel = new DefaultTreeModel(top);
+        treeModel = new TestResultTreeModel("", List.of());
+        resultsTree = new Tree(treeModel);
+        //Set the cell renderer of the tree, it is useful to show the real name of the test result and the linked icon of the result
+        resultsTree.setCellRenderer(new TestResultTreeCellRenderer());
 
-        //Add a listener for the tree when a node is selected
+        //Add the only listener of the tree, for when a node is selected
         resultsTree.addTreeSelectionListener(e -> nodeSelected());
     }
 
@@ -470,6 +540,9 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
 
     /**
      * Create the tree for the JTree, which will be used to show to the user the different tests and their result.
+     * The nodes of the tests are only built when their suite is expanded, see {@link TestResultTreeModel}.
+     * If the evaluation has the same tests as the shown one, only the nodes whose result has changed are updated.
+     * Otherwise, a new model is set and the expanded suites and the selected test are restored.
      *
      * @param eval String got with the JSON response of get_result
      */
@@ -481,137 +554,84 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
             return;
         }
 
-       /* System.out.println("#################EVAL####################");
-        System.out.println(eval);
-        System.out.println("#########################################");*/
-
-        //Initialize the tree
-        DefaultMutableTreeNode top = new DefaultMutableTreeNode(new TestResult("<html>Failed Tests <font color=\"#3e86a0\">[" + date + "]</font></html>"));
-        treeModel = new DefaultTreeModel(top);
-
-        //Add a listener for the tree when a node is selected
-        resultsTree.addTreeSelectionListener(e -> nodeSelected());
-
         //Call a parser to retrieve the results of the test in the form of an array
-        listTestResult = getTestResults(eval);
-      //  System.out.println("SIZE:"+listTestResult.size());
+        List<TestResult> listTestResult = getTestResults(eval);
+        String title = "<html>Failed Tests <font color=\"#3e86a0\">[" + date + "]</font></html>";
 
-        int nbT = listTestResult.size(); //Number of tests, which is also the size of the array
-        int nbF = 0; //Number of failures
-
-        //Count the number of faults and errors
-     /*   for (TestResult tr : listTestResult) {
-
-            String result = tr.getSuccess();
-            if (!result.equals(SUCCESS)) {
-                if (result.equals(FAILURE)) {
-                    nbF++;
-                } else {
-                    nbE++;
-                }
+        ApplicationManager.getApplication().invokeAndWait(() -> {
+            setTextsVisible(true);
+            if (!treeModel.update(title, listTestResult)) {
+                //Initialize the tree, with precomputed status for the suites
+                List<String> expanded = getExpandedSuites();
+                String[] selected = getSelectedTest();
+                treeModel = new TestResultTreeModel(title, listTestResult);
+                //Set the JTree on the model
+                resultsTree.setModel(treeModel);
+                restoreTreeState(expanded, selected);
             }
-        }*/
-
-        //Set the texts for the number of tests, errors and failures and set it visible
-     //   nbTests.setText(nbT + " Tests");
-      //  nbFailures.setText("Failures: " + nbF);
-        setTextsVisible(true);
-    //    System.out.println(nbT + " Tests Failures: " + nbF);
-
-        //Make a new array which represents all the primary nodes of the JTree
-        List<DefaultMutableTreeNode> listNodes = new ArrayList<>();
-
-        //For all the test results
-        for (TestResult result : listTestResult) {
-
-            //We look if it belongs to a specific node other than the root
-            //If not, we add it directly in the list
-           // System.out.println(result.getNodeName());
-      //      System.out.println("result.getName())" + result.getName());
-
-          /*  if (result.getNodeName() == null) {
-                listNodes.add(new DefaultMutableTreeNode(result));
-                continue;
-            }*/
-
-            // We search if the node is already in the array or not
-            boolean added = false;
-            for (int i = 0; i < listNodes.size(); i++) {
-                DefaultMutableTreeNode nodeParsed = listNodes.get(i);
-                TestResult resultParsed = (TestResult) nodeParsed.getUserObject();
-            /*    System.out.println(i+"----------------------result.getName():");
-                System.out.println(result.getName());
-                System.out.println(i+"----------------resultParsed.getName():");
-                System.out.println(resultParsed.getName());*/
-
-              //WAS:  if (!result.getNodeName().equals(resultParsed.getName()))
-              /*  if (!result.getName().equals(resultParsed.getName()))
-                    continue;*/
-
-               // System.out.println("add to tree . . . ");
-
-                // We found the node. Let's add it to our tree.
-                nodeParsed.add(new DefaultMutableTreeNode(result));
-
-                //If the actual node is not already in an Error state we need to change it's state.
-                if (!resultParsed.getSuccess().equals(ERROR)) {
-                    //If the node is in a success state, its next state will be the same as the test result
-                    if (!result.getSuccess().equals(SUCCESS)) {
-                        resultParsed = new TestResult(resultParsed.getName(), resultParsed.getNodeName(), resultParsed.getMessage(), result.getSuccess());
-                    }
+            //Show the message of the selected test, which may have changed
+            nodeSelected();
+        });
+    }
 
-                    //Update the node depends on the result of the new test result and the previous ones
-                    nodeParsed.setUserObject(resultParsed);
+    /**
+     * Return the names of the expanded suites of the results tree.
+     */
+    private List<String> getExpandedSuites() {
+        List<String> expanded = new ArrayList<>();
+        Enumeration<TreePath> paths = resultsTree.getExpandedDescendants(new TreePath(treeModel.getRoot()));
+        if (paths != null) {
+            while (paths.hasMoreElements()) {
+                TreePath path = paths.nextElement();
+                if (path.getPathCount() == 2) {
+                    expanded.add(path.getLastPathComponent().toString());
                 }
-
-                //Add the node to the list so for the next loop, this node can be used
-                listNodes.set(i, nodeParsed);
-                added = true;
-                break;
-            }
-            if (!added) {
-                DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(new TestResult(result.getNodeName()));
-                //if it wasn't added (for multiple reasons), we had the child to the actual node
-                newNode.add(new DefaultMutableTreeNode(result));
-                listNodes.add(newNode);
             }
         }
+        return expanded;
+    }
 
-        //We add everything in the root
-        for (DefaultMutableTreeNode node : listNodes) {
-            top.add(node);
+    /**
+     * Return the names of the suite and of the test selected in the results tree, or {@code null} if no test is selected.
+     */
+    private String[] getSelectedTest() {
+        TreePath path = resultsTree.getSelectionPath();
+        if (path == null || path.getPathCount() != 3) {
+            return null;
         }
+        return new String[]{path.getPathComponent(1).toString(), path.getLastPathComponent().toString()};
+    }
 
-        //Set the tree model based on the root we have just created
-        treeModel.setRoot(top);
-        //Set the JTree on the model
-        resultsTree.setModel(treeModel);
-        //Initialize the message result
-        messageResult.setText("<html><head></head><body></body></html>");
-        //Set the cell renderer of the tree, it is useful to show the real name of the test result, the linked icon of the result and to expand the tree
-        resultsTree.setCellRenderer(new TestResultTreeCellRenderer());
+    /**
+     * Expand the suites and select the test which were expanded and selected in the previous results tree.
+     */
+    private void restoreTreeState(List<String> expanded, String[] selected) {
+        for (String suite : expanded) {
+            TreePath path = treeModel.findPath(suite, null);
+            if (path != null) {
+                resultsTree.expandPath(path);
+            }
+        }
+        if (selected != null) {
+            TreePath path = treeModel.findPath(selected[0], selected[1]);
+            if (path != null) {
+                resultsTree.setSelectionPath(path);
+            }
+        }
     }
 
 
     /**
-     * Set the node expansion to true to allow the tree to be completely expanded.
-     * Recursive method.
-     *
-     * @param tree The JTree which needed to be expanded
-     * @param node The actual node. In the first call of the method, it is the root of the tree. After that is all the children of the root
+     * Expand the suites which are not a success, so the failed tests are shown.
+     * Only the suites are visited, the nodes of their tests are built by the tree when they are shown.
      */
-    public void setNodeExpanded(JTree tree, DefaultMutableTreeNode node) {
-        //Recursive call for every Tree Node
-        for (TreeNode treeNode : Collections.list(node.children())) {
-            setNodeExpanded(tree, (DefaultMutableTreeNode) treeNode);
+    public void expandFailures() {
+        TestResultTreeModel.ResultNode root = treeModel.getRoot();
+        for (TestResultTreeModel.ResultNode suite : treeModel.getSuites()) {
+            if (suite.getChildCount() > 0 && !SUCCESS.equals(suite.getStatus())) {
+                resultsTree.expandPath(new TreePath(new Object[]{root, suite}));
+            }
         }
-        //If it is the root or if the node has no children, we don't need to use expandPath
-        if (node.isRoot() || (node.getChildCount() == 0)) return;
-        //If the node is a success, don't expand it
-        if (((TestResult) node.getUserObject()).getSuccess().equals(SUCCESS)) return;
-
-        //Expand the node
-        tree.expandPath(new TreePath(node.getPath()));
     }
 
     /**
@@ -655,153 +675,21 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
      * @return List<TestResult> an array which contained all the test results
      */
     private List<TestResult> getTestResults(String evaluation) {
-        List<TestResult> listTestResult = new ArrayList<>();
-
-        int testsTotal = 0;
-        int passedTests = 0;
-
-        final String summaryTitle = "-Summary of tests\n";
-        final String summaryStart = "-+\n>|";
-        final String summaryEnd = "|\n>+";
-
-        int summaryIndex = evaluation.lastIndexOf("\n-Summary of tests\n");
-        int testNum = 1;
-
-        if (summaryIndex >= 0) {
-            String summary = evaluation.substring(summaryIndex + summaryTitle.length()).trim();
-            int sumStart = summary.indexOf(summaryStart);
-            int sumEnd = summary.indexOf(summaryEnd);
-
-            if (sumStart > 0 && sumEnd > 0) {
-                summary = summary.substring(sumStart + summaryStart.length(), sumEnd).trim();
-
-                int spcIdx = summary.indexOf(" ");
-                boolean success = true;
-
-                if (spcIdx > 0) {
-                    try {
-                        testsTotal = Integer.parseInt(summary.substring(0,spcIdx).trim());
-                        int slashIdx = summary.indexOf("/");
-                        summary = summary.substring(slashIdx + 1).trim();
-                        spcIdx = summary.indexOf(" ");
-                        passedTests = Integer.parseInt(summary.substring(0,spcIdx).trim());
-
-                    } catch (NumberFormatException e) {
-                       // throw new RuntimeException(e);
-                        success = false;
-                    }
-                }
-
-                if (success) {
-                    /*System.out.println("testsTotal: " + testsTotal);
-                    System.out.println("passedTests: " + passedTests);*/
-                    nbTests.setText(testsTotal + " Tests");
-                    nbFailures.setText("Failures: " + (testsTotal - passedTests));
-                    setTextsVisible(true);
-                    layout2.setVisible(true);
-
-                    String tests = evaluation.substring(0, summaryIndex).trim();
-
-                    final String inputTitle = "\n --- Input ---\n>";
-                    final String outputTitle = "\n --- Program output ---\n>";
-                    final String expectedTitle = "\n --- Expected output (exact text)---\n>";
-
-                    String testTitle = "-Test " + testNum + ": ";
-                    int testIndex = tests.indexOf(testTitle);
-
-                    while (testIndex >= 0) {
-                        tests = tests.substring(testIndex + testTitle.length()).trim();
-                        int nlIndex = tests.indexOf('\n');
-                        String testName = tests.substring(0, nlIndex).trim();
-                        tests = tests.substring(nlIndex + 1).trim();
-                        nlIndex = tests.indexOf('\n');
-                        String rawMessage = tests.substring(0, nlIndex).trim();
-                        String testMessage = "<p style=\"text-align: center;\">"+ rawMessage.replaceAll("\n", "<br/>")+"</p>";
-                        tests = tests.substring(nlIndex);
-                        int inputIndex = tests.indexOf(inputTitle);
-                        int outputIndex = tests.indexOf(outputTitle);
-                        int expectedIndex = tests.indexOf(expectedTitle);
-
-                        if (inputIndex < 0 && outputIndex < 0 || expectedIndex < outputIndex) break;
-
-                        String input = "";
-                        String output = "";
-                        String expected = "";
-
-                        //  System.out.println("TESTS--------------------\n"+tests+"\n------------------------");
-                        //System.out.println("i:" + inputIndex + " o:" + outputIndex + " e:" + expectedIndex);
-
-                        if (inputIndex >= 0 && outputIndex >= 0 && inputIndex < outputIndex) {
-                            // input and output
-                            input = tests.substring(inputIndex + inputTitle.length(), outputIndex).trim();
-                        }
-
-                        output = tests.substring(outputIndex + outputTitle.length(), expectedIndex).trim();
-                        tests = tests.substring(expectedIndex + expectedTitle.length());
-
-                        testNum++;
-                        testTitle = "-Test " + testNum + ": ";
-                        testIndex = tests.indexOf(testTitle);
-
-                        if (testIndex > 0) {
-                            expected = tests.substring(0, testIndex).trim();
-                        } else {
-                            expected = tests.trim();
-                        }
-
-                        String testSuccess = output.equals(expected) ? SUCCESS : FAILURE;
-                     //   System.out.println(" in: " + input + "\nout: " + output + "\nexp: " + expected + "\n" + success);
-
-                        if (!input.isEmpty()) {
-                            testMessage += "<p>Input:</p>\n<pre>" + input + "</pre>";
-                        }
-                        testMessage += "<p>Expected Output:</p>\n<pre>" + expected + "</pre>";
-                        testMessage += "<p>Execution Output:</p>\n<pre>" + output + "</pre>";
-
-                        TestResult testResult = new TestResult(testName, rawMessage , testMessage, testSuccess);
-                        listTestResult.add(testResult);
-                    }
-                }
-            }
-        }
-/*
-        //We process the text to cut it into an array
-        List<String> listString = new ArrayList<>();
-
-        //If the first char of the string is '-', we can skip it directly
-        int begin = evaluation.startsWith("-") ? 1 : 0;
-        int end = evaluation.indexOf("\n-", begin);
-        //The way of parsing the test results is very simple,
-        //Each new test result begins directly after the previous one and end with a line break and a hyphen
-        while (end != -1) {
-            String sub = evaluation.substring(begin, end);
-            listString.add(sub);
-            begin = end + 2;
-            end = evaluation.indexOf("\n-", begin);
-        }
-        //We may have not found any more line breaks, but it doesn't mean we have all the test results
-        String sub = evaluation.substring(begin);
-        while (sub.endsWith("\n")) {
-            sub = sub.substring(0, sub.length() - 1);
+        long start = System.nanoTime();
+        EvaluationReportParser.Report report = EvaluationReportParser.parse(evaluation);
+        PluginMetrics.getInstance().recordPhase(PluginMetrics.PARSING_REPORT, start);
+        if (report == null) {
+            return new ArrayList<>();
         }
-        listString.add(sub);
-        //Now we have an array with all the text of each result
-
-        //An array of TestResult, which is each composed of a name, a node, a message and a boolean if it succeeds or not
-
-        for (String resultText : listString) {
-            //We skip the case of "Tests results" because it's not interesting to show to the user
-            if (!resultText.equals("Tests results")) {
-                TestResult tr = new TestResult();
-                //Parse the text to create the TestResult based on it
-                tr.parseText(resultText);
 
-                //Everything is added to the list
-                listTestResult.add(tr);
-            }
-        }*/
+        int testsTotal = report.getTestsTotal();
+        int passedTests = report.getPassedTests();
+        nbTests.setText(testsTotal + " Tests");
+        nbFailures.setText("Failures: " + (testsTotal - passedTests));
+        setTextsVisible(true);
+        layout2.setVisible(true);
 
-        return listTestResult;
+        return new ArrayList<>(report.getTestResults());
     }
 
 
@@ -813,28 +701,16 @@ actionToolbar.getComponent().setBackground(new Color(54, 86, 116));
      * If the node is a result text, we set the messageResult TextField with the appropriate message.
      */
     private void nodeSelected() {
-        DefaultMutableTreeNode node = (DefaultMutableTreeNode) this.resultsTree.getLastSelectedPathComponent();
-        if (node == null) return;
-
-        boolean found = false;
-        if (this.listTestResult != null) {
-            for (TestResult tr : this.listTestResult) {
-                Object userObject = node.getUserObject();
-                if (userObject instanceof TestResult) {
-                    if (((TestResult) userObject).getName().equals(tr.getName())) {
-                        //If found the good node, show the message with a little indication if the test has succeeded or not
-
-                        messageResult.setText("<html><head>" +
-                                "<style>pre {border: solid 1px #aaaaaa; border-radius: 5px; overflow-wrap: break-word; word-wrap: break-word; padding: 2px 5px; background-color: " + getHexBackgroundCode() + "; white-space: pre-wrap;font-size: x-small; margin-bottom: 5px; margin-top: 2px} body {padding: 3px 11px 2px 11px; font-family: sans-serif; font-size: small} div, p {font-family: sans-serif; font-size: small; margin-bottom: 4px; margin-top: 2px} </style>" +
-                                "</head><body>"+tr.getMessage()+"</body></html>");
-                        found = true;
-                        break;
-                    }
-                }
-            }
-        }
-        //If the node selected is not a child, don't show any message
-        if (!found) {
+        Object selected = this.resultsTree.getLastSelectedPathComponent();
+
+        //Each node holds its test result, so the message is found without searching
+        if (selected instanceof TestResultTreeModel.ResultNode node && node.isTest()) {
+            //If found the good node, show the message with a little indication if the test has succeeded or not
+            messageResult.setText("<html><head>" +
+                    "<style>pre {border: solid 1px #aaaaaa; border-radius: 5px; overflow-wrap: break-word; word-wrap: break-word; padding: 2px 5px; background-color: " + getHexBackgroundCode() + "; white-space: pre-wrap;font-size: x-small; margin-bottom: 5px; margin-top: 2px} body {padding: 3px 11px 2px 11px; font-family: sans-serif; font-size: small} div, p {font-family: sans-serif; font-size: small; margin-bottom: 4px; margin-top: 2px} </style>" +
+                    "</head><body>" + node.getResult().getMessage() + "</body></html>");
+        } else {
+            //If the node selected is not a child, don't show any message
             messageResult.setText("<html><head></head><body></body></html>");
         }
     }
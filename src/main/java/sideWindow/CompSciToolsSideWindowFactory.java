@@ -31,6 +31,7 @@ import module.CompSciToolsModuleBuilder;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import service.PersistentStorage;
+import service.PushOutbox;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -45,6 +46,8 @@ import static service.PersistentStorage.DEFAULT_NUMBER;
  */
 public class CompSciToolsSideWindowFactory implements ToolWindowFactory, DumbAware, ProjectActivity {
 
+    private static final String EXERCISE_TAB = "Exercise";
+
     /**
      * The CompSciToolsSideWindow initialized and used only in the class CompSciToolsSideWindowFactory
      */
@@ -77,7 +80,7 @@ public class CompSciToolsSideWindowFactory implements ToolWindowFactory, DumbAwa
 
         //If not, create a new one and add it to the Map
         if (csw == null) {
-            csw = new CompSciToolsSideWindow(path);
+            csw = new CompSciToolsSideWindow(project, path);
             if (!vplID.equals(DEFAULT_NUMBER)) {
                 cswMap.put(path, csw);
             }
@@ -85,9 +88,15 @@ public class CompSciToolsSideWindowFactory implements ToolWindowFactory, DumbAwa
 
         //Add the CompSciToolsSideWindow to the IntelliJ window
         ContentFactory contentFactory = ContentFactory.getInstance();
-        Content content = contentFactory.createContent(csw.getContent(), "", false);
+        Content content = contentFactory.createContent(csw.getContent(), EXERCISE_TAB, false);
         toolWindow.getContentManager().addContent(content);
 
+        //Add the metrics of the plugin in a second tab
+        DiagnosticsPanel diagnostics = new DiagnosticsPanel(project);
+        Content diagnosticsContent = contentFactory.createContent(diagnostics.getContent(), "Diagnostics", false);
+        diagnosticsContent.setDisposer(diagnostics);
+        toolWindow.getContentManager().addContent(diagnosticsContent);
+
         //Store the toolWindow for the changeCsw method
         tw = toolWindow;
     }
@@ -119,6 +128,10 @@ public class CompSciToolsSideWindowFactory implements ToolWindowFactory, DumbAwa
         if (toolWindow != null) {
             ApplicationManager.getApplication().invokeLater(() -> toolWindow.setAvailable(this.shouldBeAvailable(project)));
         }
+        if (shouldBeAvailable(project)) {
+            //Upload the push queued during a previous session
+            PushOutbox.getInstance(project).start();
+        }
         return null;
     }
 
@@ -127,15 +140,17 @@ public class CompSciToolsSideWindowFactory implements ToolWindowFactory, DumbAwa
      * It's useful only when we need to show the result after an evaluation and when we need to build the tree of tests.
      * Calls in CompSciToolsAction class.
      *
+     * @param project the current project
      * @return csw the CompSciToolsSideWindow used by the plugin
      */
-    public static CompSciToolsSideWindow getCsw(String path) {
+    public static CompSciToolsSideWindow getCsw(Project project) {
+        String path = project.getBasePath() + "/";
         //Look if there is a CompSciToolsSideWindow with this VPL ID
         csw = cswMap.get(path);
 
         //If there isn't a CompSciToolsSideWindow with this ID, make a new one
         if (csw == null) {
-            csw = new CompSciToolsSideWindow(path);
+            csw = new CompSciToolsSideWindow(project, path);
             cswMap.put(path, csw);
         }
         return csw;
@@ -145,28 +160,30 @@ public class CompSciToolsSideWindowFactory implements ToolWindowFactory, DumbAwa
      * Allow changing the CompSciToolsSideWindow when the plugin is already running.
      * Only calls by the reload button of CompSciToolsSideWindow.
      *
+     * @param project the current project
      * @param newPath the path that leads to the special file which contains the VPL ID
      * @return true if the CompSciToolsSideWindow is changed, false otherwise
      */
-    public static boolean changeCsw(String newPath) {
+    public static boolean changeCsw(Project project, String newPath) {
         CompSciToolsSideWindow newCsw = cswMap.get(newPath);
         if (!csw.equals(newCsw)) {
             // If there isn't a CompSciToolsSideWindow with this ID, make a new one
             if (newCsw == null) {
-                csw = new CompSciToolsSideWindow(newPath);
+                csw = new CompSciToolsSideWindow(project, newPath);
                 cswMap.put(newPath, csw);
             } else {
                 csw = newCsw;
             }
 
-            //Remove the previously used window thanks to the Content Manager
+            //Remove the previously used window thanks to the Content Manager, the Diagnostics tab is kept
             Content c = tw.getContentManager().getContents()[0];
             tw.getContentManager().removeContent(c, true);
 
-            //Add the new CompSciToolsSideWindow
+            //Add the new CompSciToolsSideWindow in the first tab
             ContentFactory contentFactory = ContentFactory.getInstance();
-            Content content = contentFactory.createContent(csw.getContent(), "", false);
-            tw.getContentManager().addContent(content);
+            Content content = contentFactory.createContent(csw.getContent(), EXERCISE_TAB, false);
+            tw.getContentManager().addContent(content, 0);
+            tw.getContentManager().setSelectedContent(content);
             return true;
         } else {
             return false;
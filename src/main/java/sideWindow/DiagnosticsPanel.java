@@ -0,0 +1,194 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package sideWindow;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import notifications.CompSciToolsNotifier;
+import service.IncludedFilesIndex;
+import service.PluginMetrics;
+import service.PluginScheduler;
+
+import javax.json.Json;
+import javax.json.JsonWriter;
+import javax.json.stream.JsonGenerator;
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The "Diagnostics" tab of the tool window.
+ * It shows the latency and the payload of the calls to the web service and the duration of the local phases of the
+ * actions, as recorded by {@link PluginMetrics}, so that a slow server can be told apart from a slow computer.
+ * It also lists the files the next push will upload, as known by the {@link IncludedFilesIndex}.
+ * The metrics can be exported as JSON.
+ */
+public class DiagnosticsPanel implements Disposable {
+
+    /**
+     * Time in milliseconds between two refreshes, while the tab is showing
+     */
+    private static final int REFRESH_PERIOD = 2000;
+
+    private final Project project;
+    private final JPanel content = new JPanel(new BorderLayout());
+    private final JEditorPane report = new JEditorPane("text/html", "");
+    private final Timer timer = new Timer(REFRESH_PERIOD, e -> refreshIfShowing());
+
+    public DiagnosticsPanel(Project project) {
+        this.project = project;
+        report.setEditable(false);
+
+        JButton refresh = new JButton("Refresh");
+        refresh.addActionListener(e -> refresh());
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(e -> {
+            PluginMetrics.getInstance().reset();
+            refresh();
+        });
+        JButton export = new JButton("Export JSON...");
+        export.addActionListener(e -> export());
+
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        buttons.add(refresh);
+        buttons.add(reset);
+        buttons.add(export);
+        content.add(buttons, BorderLayout.NORTH);
+        content.add(new JBScrollPane(report), BorderLayout.CENTER);
+
+        refresh();
+        timer.start();
+    }
+
+    /**
+     * Return the component of the tab.
+     */
+    public JComponent getContent() {
+        return content;
+    }
+
+    private void refreshIfShowing() {
+        if (content.isShowing()) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        PluginMetrics metrics = PluginMetrics.getInstance();
+        StringBuilder html = new StringBuilder("<html><head><style>body {font-family: sans-serif; font-size: small; padding: 3px 11px} "
+                + "td, th {padding: 1px 6px; text-align: right} td.name, th.name {text-align: left}</style></head><body>");
+        html.append("<p>Since ").append(new SimpleDateFormat("HH:mm:ss").format(new Date(metrics.getSince()))).append("</p>");
+
+        html.append("<h3>Web service</h3>");
+        appendTable(html, metrics.getServices(), true);
+        html.append("<h3>Local phases</h3>");
+        appendTable(html, metrics.getPhases(), false);
+
+        PluginScheduler.Statistics scheduler = PluginScheduler.getInstance().getStatistics();
+        html.append("<h3>Scheduler</h3><p>")
+                .append(scheduler.running()).append(" running, ")
+                .append(scheduler.queued()).append(" queued, ")
+                .append(scheduler.scheduled()).append(" scheduled, ")
+                .append(scheduler.completed()).append(" completed, ")
+                .append(scheduler.failed()).append(" failed<br>Latency: ")
+                .append(scheduler.averageLatency()).append(" ms average, ")
+                .append(scheduler.maxLatency()).append(" ms max</p>");
+
+        List<String> included = IncludedFilesIndex.getInstance(project).peekNames();
+        html.append("<h3>Files to push</h3>");
+        if (included == null) {
+            html.append("<p>Not indexed yet, the files are listed at the next push.</p>");
+        } else {
+            html.append("<p>").append(included.size()).append(" files");
+            for (String name : included) {
+                html.append("<br>").append(StringUtil.escapeXmlEntities(name));
+            }
+            html.append("</p>");
+        }
+        html.append("</body></html>");
+        report.setText(html.toString());
+    }
+
+    private static void appendTable(StringBuilder html, Map<String, PluginMetrics.Statistics> operations, boolean withPayload) {
+        if (operations.isEmpty()) {
+            html.append("<p>Nothing recorded yet.</p>");
+            return;
+        }
+        html.append("<table><tr><th class=\"name\">Operation</th><th>Count</th>");
+        if (withPayload) {
+            html.append("<th>Errors</th>");
+        }
+        html.append("<th>Avg</th><th>p50</th><th>p90</th><th>Max</th>");
+        if (withPayload) {
+            html.append("<th>Sent</th><th>Received</th>");
+        }
+        html.append("</tr>");
+        operations.forEach((name, statistics) -> {
+            html.append("<tr><td class=\"name\">").append(name).append("</td><td>").append(statistics.count()).append("</td>");
+            if (withPayload) {
+                html.append("<td>").append(statistics.errors()).append("</td>");
+            }
+            html.append("<td>").append(statistics.averageMillis()).append(" ms</td>")
+                    .append("<td>").append(statistics.percentile(0.5)).append(" ms</td>")
+                    .append("<td>").append(statistics.percentile(0.9)).append(" ms</td>")
+                    .append("<td>").append(statistics.maxMillis()).append(" ms</td>");
+            if (withPayload) {
+                html.append("<td>").append(StringUtil.formatFileSize(statistics.requestBytes())).append("</td>")
+                        .append("<td>").append(StringUtil.formatFileSize(statistics.responseBytes())).append("</td>");
+            }
+            html.append("</tr>");
+        });
+        html.append("</table>");
+    }
+
+    /**
+     * Ask the user for a file and write the metrics in it as JSON.
+     */
+    private void export() {
+        FileSaverDescriptor descriptor = new FileSaverDescriptor("Export Diagnostics", "Save the CompSci Tools metrics as JSON", "json");
+        VirtualFileWrapper wrapper = FileChooserFactory.getInstance().createSaveFileDialog(descriptor, project)
+                .save((Path) null, "compsci-tools-diagnostics.json");
+        if (wrapper == null) {
+            return;
+        }
+        StringWriter json = new StringWriter();
+        try (JsonWriter writer = Json.createWriterFactory(Map.of(JsonGenerator.PRETTY_PRINTING, true)).createWriter(json)) {
+            writer.writeObject(PluginMetrics.getInstance().toJson());
+        }
+        try {
+            Files.writeString(wrapper.getFile().toPath(), json.toString());
+        } catch (IOException e) {
+            CompSciToolsNotifier.notifyError(project, "ERROR : export failed", e.getMessage());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+    }
+}
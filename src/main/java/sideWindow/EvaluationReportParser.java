@@ -0,0 +1,249 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package sideWindow;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static sideWindow.TestResult.FAILURE;
+import static sideWindow.TestResult.SUCCESS;
+
+/**
+ * A parser for the evaluation report given by the API.
+ * The report is read once, with a cursor over the original string: no intermediate copy of the remaining text is made
+ * and each title is searched for only once, so the parsing time is linear in the size of the report.
+ */
+public class EvaluationReportParser {
+
+    private static final String SUMMARY_SEARCH = "\n-Summary of tests\n";
+    private static final String SUMMARY_TITLE = "-Summary of tests\n";
+    private static final String SUMMARY_START = "-+\n>|";
+    private static final String SUMMARY_END = "|\n>+";
+
+    private static final String INPUT_TITLE = "\n --- Input ---\n>";
+    private static final String OUTPUT_TITLE = "\n --- Program output ---\n>";
+    private static final String EXPECTED_TITLE = "\n --- Expected output (exact text)---\n>";
+
+    /**
+     * The result of the parsing of a report.
+     */
+    public static class Report {
+        private final int testsTotal;
+        private final int passedTests;
+        private final List<TestResult> testResults;
+
+        Report(int testsTotal, int passedTests, List<TestResult> testResults) {
+            this.testsTotal = testsTotal;
+            this.passedTests = passedTests;
+            this.testResults = testResults;
+        }
+
+        /**
+         * Return the number of tests given by the summary
+         */
+        public int getTestsTotal() {
+            return testsTotal;
+        }
+
+        /**
+         * Return the number of passed tests given by the summary
+         */
+        public int getPassedTests() {
+            return passedTests;
+        }
+
+        /**
+         * Return the result of each test, in the order of the report
+         */
+        public List<TestResult> getTestResults() {
+            return testResults;
+        }
+    }
+
+    private final String evaluation;
+
+    /**
+     * End of the tests part of the report, trailing whitespaces excluded
+     */
+    private int end;
+
+    /**
+     * Position of the next occurrence of each title, at or after the cursor, or -1 if there is none
+     */
+    private int nextInput = -2;
+    private int nextOutput = -2;
+    private int nextExpected = -2;
+
+    private EvaluationReportParser(String evaluation) {
+        this.evaluation = evaluation;
+    }
+
+    /**
+     * Parse the report given in argument.
+     *
+     * @param evaluation this string represents the string obtained in the JSON response of the API
+     * @return the parsed report, or {@code null} if the report has no valid summary
+     */
+    public static Report parse(String evaluation) {
+        return new EvaluationReportParser(evaluation).parse();
+    }
+
+    private Report parse() {
+        int summaryIndex = evaluation.lastIndexOf(SUMMARY_SEARCH);
+        if (summaryIndex < 0) {
+            return null;
+        }
+
+        // The summary is at the end of the report and is small, it is read as a separate string
+        String summary = evaluation.substring(summaryIndex + SUMMARY_TITLE.length()).trim();
+        int sumStart = summary.indexOf(SUMMARY_START);
+        int sumEnd = summary.indexOf(SUMMARY_END);
+        if (sumStart <= 0 || sumEnd <= 0) {
+            return null;
+        }
+        summary = summary.substring(sumStart + SUMMARY_START.length(), sumEnd).trim();
+
+        int testsTotal = 0;
+        int passedTests = 0;
+        int spcIdx = summary.indexOf(" ");
+        if (spcIdx > 0) {
+            try {
+                testsTotal = Integer.parseInt(summary.substring(0, spcIdx).trim());
+                int slashIdx = summary.indexOf("/");
+                summary = summary.substring(slashIdx + 1).trim();
+                spcIdx = summary.indexOf(" ");
+                passedTests = Integer.parseInt(summary.substring(0, spcIdx).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        return new Report(testsTotal, passedTests, parseTests(summaryIndex));
+    }
+
+    /**
+     * Parse every test of the report, up to the summary.
+     *
+     * @param summaryIndex the position of the summary in the report
+     * @return the result of each test
+     */
+    private List<TestResult> parseTests(int summaryIndex) {
+        List<TestResult> listTestResult = new ArrayList<>();
+
+        // Trim the tests part of the report
+        end = summaryIndex;
+        while (end > 0 && evaluation.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int cursor = skipWhitespaces(0);
+
+        int testNum = 1;
+        String testTitle = "-Test " + testNum + ": ";
+        int testIndex = find(testTitle, cursor);
+
+        while (testIndex >= 0) {
+            cursor = skipWhitespaces(testIndex + testTitle.length());
+            int nlIndex = find('\n', cursor);
+            if (nlIndex < 0) break;
+            String testName = evaluation.substring(cursor, nlIndex).trim();
+
+            cursor = skipWhitespaces(nlIndex + 1);
+            nlIndex = find('\n', cursor);
+            if (nlIndex < 0) break;
+            String rawMessage = evaluation.substring(cursor, nlIndex).trim();
+            cursor = nlIndex;
+
+            // Positions of the titles, relative to the cursor
+            int inputIndex = relative(nextInput = next(INPUT_TITLE, nextInput, cursor), cursor);
+            int outputIndex = relative(nextOutput = next(OUTPUT_TITLE, nextOutput, cursor), cursor);
+            int expectedIndex = relative(nextExpected = next(EXPECTED_TITLE, nextExpected, cursor), cursor);
+
+            if (inputIndex < 0 && outputIndex < 0 || expectedIndex < outputIndex) break;
+            if (expectedIndex < 0) break;
+
+            String input = "";
+            if (inputIndex >= 0 && inputIndex < outputIndex) {
+                // input and output
+                input = evaluation.substring(cursor + inputIndex + INPUT_TITLE.length(), cursor + outputIndex).trim();
+            }
+            String output = evaluation.substring(cursor + outputIndex + OUTPUT_TITLE.length(), cursor + expectedIndex).trim();
+            cursor += expectedIndex + EXPECTED_TITLE.length();
+
+            testNum++;
+            testTitle = "-Test " + testNum + ": ";
+            testIndex = find(testTitle, cursor);
+
+            String expected;
+            if (testIndex > cursor) {
+                expected = evaluation.substring(cursor, testIndex).trim();
+            } else {
+                expected = evaluation.substring(Math.min(cursor, end), end).trim();
+            }
+
+            String testSuccess = output.equals(expected) ? SUCCESS : FAILURE;
+
+            StringBuilder testMessage = new StringBuilder();
+            testMessage.append("<p style=\"text-align: center;\">").append(rawMessage).append("</p>");
+            if (!input.isEmpty()) {
+                testMessage.append("<p>Input:</p>\n<pre>").append(input).append("</pre>");
+            }
+            testMessage.append("<p>Expected Output:</p>\n<pre>").append(expected).append("</pre>");
+            testMessage.append("<p>Execution Output:</p>\n<pre>").append(output).append("</pre>");
+
+            listTestResult.add(new TestResult(testName, rawMessage, testMessage.toString(), testSuccess));
+        }
+
+        return Collections.unmodifiableList(listTestResult);
+    }
+
+    /**
+     * Return the position of the next occurrence of the title, reusing the previous position while it is still ahead of the cursor.
+     */
+    private int next(String title, int previous, int cursor) {
+        if (previous == -1 || previous >= cursor) {
+            return previous;
+        }
+        return find(title, cursor);
+    }
+
+    private static int relative(int index, int cursor) {
+        return index < 0 ? -1 : index - cursor;
+    }
+
+    /**
+     * Search for the string in the tests part of the report.
+     */
+    private int find(String str, int from) {
+        int index = evaluation.indexOf(str, from);
+        return index >= 0 && index + str.length() <= end ? index : -1;
+    }
+
+    /**
+     * Search for the character in the tests part of the report.
+     */
+    private int find(char c, int from) {
+        int index = evaluation.indexOf(c, from);
+        return index >= 0 && index < end ? index : -1;
+    }
+
+    private int skipWhitespaces(int from) {
+        while (from < end && evaluation.charAt(from) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+}
@@ -93,16 +93,6 @@ public class TestResult {
         return success;
     }
 
-    /**
-     * Allow to set the success of the test result.
-     * Useful only in the case of the node in the TestResultTreeCellRenderer.
-     *
-     * @param success the string which define the success
-     */
-    public void setSuccess(String success) {
-        this.success = success;
-    }
-
 
     /**
      * Delete from the name given in argument, the numbering in it.
@@ -19,7 +19,6 @@ import ui.icons.CompSciToolsColors;
 import ui.icons.CompSciToolsIcons;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultMutableTreeNode;
 import javax.swing.tree.TreeCellRenderer;
 import java.awt.*;
 
@@ -28,7 +27,7 @@ import static sideWindow.TestResult.*;
 
 /**
  * This class is used to show on the result test tree of CompSciToolsSideWindows the name of the test and the linked icon of its results
- * This class is used to show on the result test tree of CompSciToolsSideWindows the name of the test and the linked icon of its results
+ * The status of the suites is computed by the {@link TestResultTreeModel}, so rendering a node never visits its children.
  */
 public class TestResultTreeCellRenderer implements TreeCellRenderer {
     /**
@@ -54,75 +53,28 @@ public class TestResultTreeCellRenderer implements TreeCellRenderer {
      */
     public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected, boolean expanded,
                                                   boolean leaf, int row, boolean hasFocus) {
+        if (!(value instanceof TestResultTreeModel.ResultNode node)) {
+            label.setText(value == null ? "" : value.toString());
+            label.setIcon(null);
+            return label;
+        }
 
-
-        int childCount = ((DefaultMutableTreeNode) value).getChildCount();
-
-        //If the actual node is a leaf
-        if (childCount == 0) {
-            //Retrieve the test result from the node
-            TestResult testResult = (TestResult) ((DefaultMutableTreeNode) value).getUserObject();
-            //Set the name
-            String name = testResult.getName();
-            label.setText(name);
-            //Depends on the success, set a different icon
-            switch (testResult.getSuccess()) {
-                case SUCCESS:
-                    label.setIcon(CompSciToolsIcons.CaseOk);
-                    label.setForeground(CompSciToolsColors.GREEN);
-                    break;
-                case FAILURE:
-                    label.setIcon(CompSciToolsIcons.CaseFail);
-                    label.setForeground(CompSciToolsColors.OUTSTANDING_GRAY);
-                    break;
-                case ERROR:
-                    label.setIcon(CompSciToolsIcons.CaseError);
-                    label.setForeground(CompSciToolsColors.RED);
-                    break;
-            }
+        //Set the name
+        label.setText(node.getResult().getName());
+        //Depends on the success, set a different icon, for a test or for a node with multiples tests
+        boolean isTest = node.isTest();
+        String status = node.getStatus();
+        if (SUCCESS.equals(status)) {
+            label.setIcon(isTest ? CompSciToolsIcons.CaseOk : CompSciToolsIcons.SuiteOk);
+            label.setForeground(CompSciToolsColors.GREEN);
+        } else if (FAILURE.equals(status)) {
+            label.setIcon(isTest ? CompSciToolsIcons.CaseFail : CompSciToolsIcons.SuiteFail);
+            label.setForeground(CompSciToolsColors.OUTSTANDING_GRAY);
+        } else if (ERROR.equals(status)) {
+            label.setIcon(isTest ? CompSciToolsIcons.CaseError : CompSciToolsIcons.SuiteError);
+            label.setForeground(CompSciToolsColors.RED);
         } else {
-            //Else, the actual node is a node with multiples leafs and maybe others nodes
-            int s = 0, f = 0, e = 0; //The number of success, failures and errors in the children
-            for (int i = 0; i < childCount; i++) {
-                DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) ((DefaultMutableTreeNode) value).getChildAt(i);
-                TestResult childTestResult = (TestResult) childNode.getUserObject();
-                //Depends on the success, increment a different int
-                switch (childTestResult.getSuccess()) {
-                    case SUCCESS:
-                        s++;
-                        break;
-                    case FAILURE:
-                        f++;
-                        break;
-                    case ERROR:
-                        e++;
-                        break;
-                }
-                //If there is any errors, we are 100% sure that the node will be in an Error state
-                if (e != 0) {
-                    break;
-                }
-            }
-            //Depends on the numbers, set a different icon and the success of the node
-            TestResult testResult = (TestResult) ((DefaultMutableTreeNode) value).getUserObject();
-            if (e != 0) {
-                label.setIcon(CompSciToolsIcons.SuiteError);
-                label.setForeground(CompSciToolsColors.RED);
-                testResult.setSuccess(ERROR);
-            } else if (f != 0) {
-                label.setIcon(CompSciToolsIcons.SuiteFail);
-                label.setForeground(CompSciToolsColors.OUTSTANDING_GRAY);
-                testResult.setSuccess(FAILURE);
-            } else if (s != 0) {
-                label.setIcon(CompSciToolsIcons.SuiteOk);
-                label.setForeground(CompSciToolsColors.GREEN);
-                testResult.setSuccess(SUCCESS);
-            } else {
-                label.setIcon(null);
-            }
-            ((DefaultMutableTreeNode) value).setUserObject(testResult);
-            //Set the name
-            label.setText(testResult.getName());
+            label.setIcon(null);
         }
 
         return label;
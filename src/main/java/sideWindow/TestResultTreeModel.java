@@ -0,0 +1,308 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package sideWindow;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static sideWindow.TestResult.*;
+
+/**
+ * The model of the tree of test results shown in the side window.
+ * The root contains the suites, which contain the tests. The status of each suite is computed once, when the model is
+ * built, and the nodes of the tests are only created when the tree asks for them, that is when their suite is expanded.
+ * Each node knows its test result and its index in its parent, so the tree never has to search for them.
+ * A new evaluation with the same tests updates the model in place, see {@link #update(String, List)}.
+ */
+public class TestResultTreeModel implements TreeModel {
+
+    /**
+     * A node of the tree: the root, a suite or a test.
+     */
+    public static final class ResultNode {
+        private final ResultNode parent;
+        private TestResult result;
+        private String status;
+        private final int index;
+        private List<TestResult> tests;
+        private final ResultNode[] children;
+
+        private ResultNode(ResultNode parent, TestResult result, String status, int index, List<TestResult> tests, int childCount) {
+            this.parent = parent;
+            this.result = result;
+            this.status = status;
+            this.index = index;
+            this.tests = tests;
+            this.children = new ResultNode[childCount];
+        }
+
+        /**
+         * Return the test result shown by the node, for a suite or the root it only holds the name
+         */
+        public TestResult getResult() {
+            return result;
+        }
+
+        /**
+         * Return the status of the node ({@link TestResult#SUCCESS}, {@link TestResult#FAILURE} or {@link TestResult#ERROR}),
+         * which is the worst status of its tests for a suite, or {@code null} for a suite without tests
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        /**
+         * Return if the node is a test, and not a suite or the root
+         */
+        public boolean isTest() {
+            return tests == null;
+        }
+
+        /**
+         * Return the index of the node in its parent
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public int getChildCount() {
+            return children.length;
+        }
+
+        @Override
+        public String toString() {
+            return result.getName();
+        }
+    }
+
+    private final EventListenerList listeners = new EventListenerList();
+
+    private final ResultNode root;
+
+    /**
+     * Build the model of the given test results.
+     *
+     * @param title the text shown on the root
+     * @param tests the results of the tests, in the order of the report
+     */
+    public TestResultTreeModel(String title, List<TestResult> tests) {
+        if (tests.isEmpty()) {
+            root = new ResultNode(null, new TestResult(title), null, 0, List.of(), 0);
+            return;
+        }
+        //All the tests are gathered in one suite, named after the node of the first test
+        List<TestResult> suiteTests = List.copyOf(tests);
+        String status = worstStatus(suiteTests);
+        root = new ResultNode(null, new TestResult(title), status, 0, List.of(), 1);
+        root.children[0] = new ResultNode(root, new TestResult(tests.get(0).getNodeName()), status, 0, suiteTests, suiteTests.size());
+    }
+
+    /**
+     * Replace the results of the tree by the ones of a new evaluation, if it has the same suites and tests.
+     * Only the nodes whose result has changed are notified to the tree, so its expansion and its selection are kept.
+     *
+     * @param title the text shown on the root
+     * @param tests the results of the tests, in the order of the report
+     * @return {@code true} if the model has been updated, {@code false} if the tests are not the same and a new model is needed
+     */
+    public boolean update(String title, List<TestResult> tests) {
+        if (!hasSameTests(tests)) {
+            return false;
+        }
+        boolean rootChanged = !root.result.getName().equals(title);
+        root.result = rootChanged ? new TestResult(title) : root.result;
+        if (tests.isEmpty()) {
+            fireRootChanged(rootChanged);
+            return true;
+        }
+
+        ResultNode suite = root.children[0];
+        List<TestResult> suiteTests = List.copyOf(tests);
+        int[] changed = new int[suiteTests.size()];
+        int count = 0;
+        for (int i = 0; i < suiteTests.size(); i++) {
+            TestResult previous = suite.tests.get(i);
+            TestResult current = suiteTests.get(i);
+            if (!previous.getSuccess().equals(current.getSuccess()) || !Objects.equals(previous.getMessage(), current.getMessage())) {
+                changed[count++] = i;
+            }
+            ResultNode child = suite.children[i];
+            if (child != null) {
+                child.result = current;
+                child.status = current.getSuccess();
+            }
+        }
+        suite.tests = suiteTests;
+
+        String status = worstStatus(suiteTests);
+        if (!Objects.equals(status, suite.status)) {
+            suite.status = status;
+            root.status = status;
+            rootChanged = true;
+            fire(new TreeModelEvent(this, new Object[]{root}, new int[]{0}, new Object[]{suite}));
+        }
+        fireRootChanged(rootChanged);
+        if (count > 0) {
+            int[] indices = Arrays.copyOf(changed, count);
+            Object[] nodes = new Object[count];
+            for (int i = 0; i < count; i++) {
+                nodes[i] = getChild(suite, indices[i]);
+            }
+            fire(new TreeModelEvent(this, new Object[]{root, suite}, indices, nodes));
+        }
+        return true;
+    }
+
+    /**
+     * Return if the given tests are shown by the same nodes: the same suite and the same tests in the same order.
+     */
+    private boolean hasSameTests(List<TestResult> tests) {
+        if (tests.isEmpty() || root.children.length == 0) {
+            return tests.isEmpty() && root.children.length == 0;
+        }
+        ResultNode suite = root.children[0];
+        if (suite.tests.size() != tests.size() || !suite.result.getName().equals(tests.get(0).getNodeName())) {
+            return false;
+        }
+        for (int i = 0; i < tests.size(); i++) {
+            if (!suite.tests.get(i).getName().equals(tests.get(i).getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the path of the test with the given name in the suite with the given name, or of the suite if the test
+     * is {@code null}, or {@code null} if there is no such node.
+     * It is used to restore the expansion and the selection of the tree once a new model has been set.
+     *
+     * @param suiteName the name of the suite
+     * @param testName  the name of the test, or {@code null}
+     * @return the path of the node
+     */
+    public TreePath findPath(String suiteName, String testName) {
+        for (ResultNode suite : root.children) {
+            if (!suite.result.getName().equals(suiteName)) {
+                continue;
+            }
+            if (testName == null) {
+                return new TreePath(new Object[]{root, suite});
+            }
+            for (int i = 0; i < suite.tests.size(); i++) {
+                if (suite.tests.get(i).getName().equals(testName)) {
+                    return new TreePath(new Object[]{root, suite, getChild(suite, i)});
+                }
+            }
+        }
+        return null;
+    }
+
+    private void fireRootChanged(boolean rootChanged) {
+        if (rootChanged) {
+            fire(new TreeModelEvent(this, new Object[]{root}, null, null));
+        }
+    }
+
+    private void fire(TreeModelEvent event) {
+        for (TreeModelListener listener : listeners.getListeners(TreeModelListener.class)) {
+            listener.treeNodesChanged(event);
+        }
+    }
+
+    /**
+     * Return the worst status of the given tests: an error, else a failure, else a success.
+     */
+    private static String worstStatus(List<TestResult> tests) {
+        String status = null;
+        for (TestResult test : tests) {
+            if (ERROR.equals(test.getSuccess())) {
+                return ERROR;
+            }
+            if (FAILURE.equals(test.getSuccess())) {
+                status = FAILURE;
+            } else if (status == null) {
+                status = SUCCESS;
+            }
+        }
+        return status;
+    }
+
+    @Override
+    public ResultNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Return the suites of the tree, the children of the root.
+     */
+    public ResultNode[] getSuites() {
+        return root.children.clone();
+    }
+
+    @Override
+    public ResultNode getChild(Object parent, int index) {
+        ResultNode node = (ResultNode) parent;
+        ResultNode child = node.children[index];
+        if (child == null) {
+            //The node of a test is created the first time it is shown
+            TestResult test = node.tests.get(index);
+            child = new ResultNode(node, test, test.getSuccess(), index, null, 0);
+            node.children[index] = child;
+        }
+        return child;
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        return ((ResultNode) parent).children.length;
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return ((ResultNode) node).isTest();
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        //The results cannot be edited
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (parent == null || child == null) {
+            return -1;
+        }
+        ResultNode node = (ResultNode) child;
+        return node.parent == parent ? node.index : -1;
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener l) {
+        listeners.add(TreeModelListener.class, l);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener l) {
+        listeners.remove(TreeModelListener.class, l);
+    }
+}
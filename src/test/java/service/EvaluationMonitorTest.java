@@ -0,0 +1,241 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import vplwsclient.RestJsonMoodleClient.VPLService;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of {@link EvaluationMonitor} against a stub execution server, which accepts the monitor websocket and sends
+ * the given messages, or nothing at all.
+ */
+class EvaluationMonitorTest {
+
+    private static final long MAX_WAIT = 5000;
+    private static final long MONITOR_TIMEOUT = 300;
+    private static final long POLL_WINDOW = 1000;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final List<StubExecutionServer> servers = new ArrayList<>();
+
+    @AfterEach
+    void closeServers() throws IOException {
+        for (StubExecutionServer server : servers) {
+            server.close();
+        }
+    }
+
+    @Test
+    void retrievesResultOnceMonitorNotifiesIt() throws Exception {
+        StubExecutionServer server = start(0, "compilation:", "message:running", "retrieve:");
+        StubService service = new StubService(server.url(), 0);
+
+        long start = System.currentTimeMillis();
+        JsonObject result = monitor(service).evaluate(true);
+
+        assertTrue(EvaluationMonitor.isFinished(result));
+        assertEquals(1, service.resultCalls.get());
+        assertTrue(System.currentTimeMillis() - start < MAX_WAIT - POLL_WINDOW);
+    }
+
+    @Test
+    void pollsWhenMonitorStaysSilent() throws Exception {
+        StubExecutionServer server = start(0);
+        StubService service = new StubService(server.url(), 2);
+
+        long start = System.currentTimeMillis();
+        JsonObject result = monitor(service).evaluate(true);
+
+        assertTrue(EvaluationMonitor.isFinished(result));
+        assertEquals(3, service.resultCalls.get());
+        //The silence is detected after MONITOR_TIMEOUT, long before the polling window
+        assertTrue(System.currentTimeMillis() - start < MAX_WAIT - POLL_WINDOW);
+    }
+
+    @Test
+    void pollsWhenMonitorCannotBeReached() throws Exception {
+        String url;
+        try (ServerSocket closed = new ServerSocket(0)) {
+            url = "ws://localhost:" + closed.getLocalPort() + "/monitor";
+        }
+        StubService service = new StubService(url, 1);
+
+        JsonObject result = monitor(service).evaluate(true);
+
+        assertTrue(EvaluationMonitor.isFinished(result));
+        assertEquals(2, service.resultCalls.get());
+    }
+
+    @Test
+    void keepsPollingWindowWhenMonitorNeverFinishes() throws Exception {
+        StubExecutionServer server = start(MONITOR_TIMEOUT / 3);
+        StubService service = new StubService(server.url(), 2);
+
+        long start = System.currentTimeMillis();
+        JsonObject result = monitor(service).evaluate(true);
+        long elapsed = System.currentTimeMillis() - start;
+
+        //The monitor kept talking until the polling window, which was then enough to get the result
+        assertTrue(EvaluationMonitor.isFinished(result));
+        assertEquals(3, service.resultCalls.get());
+        assertTrue(elapsed >= MAX_WAIT - POLL_WINDOW - 100, "waited " + elapsed);
+        assertTrue(elapsed < MAX_WAIT, "waited " + elapsed);
+    }
+
+    @Test
+    void returnsUnfinishedResultAtDeadline() throws Exception {
+        StubService service = new StubService(null, Integer.MAX_VALUE);
+
+        JsonObject result = new EvaluationMonitor(service, httpClient, 1000, MONITOR_TIMEOUT, POLL_WINDOW).evaluate(true);
+
+        assertFalse(EvaluationMonitor.isFinished(result));
+        assertTrue(service.resultCalls.get() > 1);
+    }
+
+    private EvaluationMonitor monitor(StubService service) {
+        return new EvaluationMonitor(service, httpClient, MAX_WAIT, MONITOR_TIMEOUT, POLL_WINDOW);
+    }
+
+    private StubExecutionServer start(long keepAlivePeriod, String... messages) throws IOException {
+        StubExecutionServer server = new StubExecutionServer(keepAlivePeriod, messages);
+        servers.add(server);
+        return server;
+    }
+
+    /**
+     * The web service: VPL_EVALUATE gives the URL of the monitor, and VPL_GET_RESULT answers that the evaluation is
+     * not finished for the given number of calls.
+     */
+    private static class StubService implements EvaluationMonitor.ServiceCall {
+
+        private final String monitorURL;
+        private final int unfinishedCalls;
+        private final AtomicInteger resultCalls = new AtomicInteger();
+
+        StubService(String monitorURL, int unfinishedCalls) {
+            this.monitorURL = monitorURL;
+            this.unfinishedCalls = unfinishedCalls;
+        }
+
+        @Override
+        public JsonObject call(VPLService service) {
+            if (service == VPLService.VPL_EVALUATE) {
+                return monitorURL == null ? JsonValue.EMPTY_JSON_OBJECT
+                        : Json.createObjectBuilder().add("monitorURL", monitorURL).build();
+            }
+            boolean finished = resultCalls.incrementAndGet() > unfinishedCalls;
+            return Json.createObjectBuilder()
+                    .add("compilation", finished ? "" : EvaluationMonitor.NOT_FINISHED)
+                    .add("evaluation", finished ? "-Tests results" : "")
+                    .build();
+        }
+    }
+
+    /**
+     * A websocket server accepting one monitor connection. It sends the given messages, then, if keepAlivePeriod is
+     * positive, a progress message with that period, and keeps the connection open until it is closed.
+     */
+    private static class StubExecutionServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final Thread thread;
+        private volatile Socket socket;
+
+        StubExecutionServer(long keepAlivePeriod, String... messages) throws IOException {
+            thread = new Thread(() -> serve(keepAlivePeriod, messages), "Stub execution server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        String url() {
+            return "ws://localhost:" + serverSocket.getLocalPort() + "/monitor";
+        }
+
+        private void serve(long keepAlivePeriod, String[] messages) {
+            try {
+                socket = serverSocket.accept();
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.ISO_8859_1));
+                String key = null;
+                for (String line = reader.readLine(); line != null && !line.isEmpty(); line = reader.readLine()) {
+                    if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+                        key = line.substring(line.indexOf(':') + 1).trim();
+                    }
+                }
+                OutputStream out = socket.getOutputStream();
+                out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\n"
+                        + "Sec-WebSocket-Accept: " + accept(key) + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                for (String message : messages) {
+                    sendText(out, message);
+                }
+                while (keepAlivePeriod > 0) {
+                    Thread.sleep(keepAlivePeriod);
+                    sendText(out, "message:running");
+                }
+            } catch (IOException | InterruptedException e) {
+                //The server was closed
+            }
+        }
+
+        private static String accept(String key) throws IOException {
+            try {
+                MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+                byte[] digest = sha1.digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.ISO_8859_1));
+                return Base64.getEncoder().encodeToString(digest);
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+
+        private static void sendText(OutputStream out, String text) throws IOException {
+            byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+            out.write(0x81); //A final text frame
+            out.write(payload.length); //The messages are shorter than 126 bytes
+            out.write(payload);
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            thread.interrupt();
+            if (socket != null) {
+                socket.close();
+            }
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import org.junit.jupiter.api.Test;
+import vplwsclient.FileUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link IgnoreMatcher} excludes the same files as {@link FileUtils#isExcluded(String, List)}, which it
+ * replaces, so that the existing .vplignore files keep their meaning.
+ */
+class IgnoreMatcherTest {
+
+    private static final List<String> PATTERNS = List.of(
+            ".idea", ".idea/**", "out", "out/**", "workspace.xml", "*.iml", ".moodlevpl", ".vplignore",
+            "*.class", "out*", "build/*", "src/*.txt", "**/tmp", "doc/**/*.pdf", "a*b*c");
+
+    private static final List<String> PATHS = List.of(
+            ".idea", ".idea/workspace.xml", "out", "out/production/Main.class", "output", "outer/Main.java",
+            "src/out", "src/output.txt", "workspace.xml", "src/workspace.xml", "project.iml", "module/project.iml",
+            "Main.class", "src/Main.class", "src/pkg/Main.class", "Main.java", "src/Main.java", "build",
+            "build/Main.java", "build/classes/Main.java", "src/notes.txt", "src/pkg/notes.txt", "notes.txt",
+            "tmp", "src/tmp", "src/pkg/tmp", "doc/manual.pdf", "doc/en/manual.pdf", "doc/en/manual.md",
+            "abc", "a/b/c", "axbyc.java", "src/abc", ".moodlevpl", ".vplignore", "src/.vplignore");
+
+    @Test
+    void matchesFileUtilsOnEachPattern() {
+        for (String pattern : PATTERNS) {
+            List<String> excludedFiles = new ArrayList<>(List.of(pattern));
+            IgnoreMatcher matcher = IgnoreMatcher.compile(excludedFiles);
+            for (String path : PATHS) {
+                assertEquals(FileUtils.isExcluded(path, excludedFiles), matcher.isExcluded(path),
+                        "pattern " + pattern + " on " + path);
+            }
+        }
+    }
+
+    @Test
+    void matchesFileUtilsOnAllPatterns() {
+        List<String> excludedFiles = new ArrayList<>(PATTERNS);
+        IgnoreMatcher matcher = IgnoreMatcher.compile(excludedFiles);
+        for (String path : PATHS) {
+            assertEquals(FileUtils.isExcluded(path, excludedFiles), matcher.isExcluded(path), path);
+        }
+    }
+
+    @Test
+    void starMatchesNestedFiles() {
+        IgnoreMatcher matcher = IgnoreMatcher.compile(List.of("*.class", "out*"));
+        assertTrue(matcher.isExcluded("src/pkg/Main.class"));
+        assertTrue(matcher.isExcluded("out/production/Main.java"));
+        assertFalse(matcher.isExcluded("src/Main.java"));
+    }
+
+    @Test
+    void commentsAndBlankLinesAreIgnored() {
+        IgnoreMatcher matcher = IgnoreMatcher.compile(List.of("# *.java", "", "   "));
+        assertFalse(matcher.isExcluded("Main.java"));
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.util.Disposer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the cancellation of the tasks of {@link PluginScheduler} and of the separation of its pools.
+ */
+class PluginSchedulerTest {
+
+    private final PluginScheduler scheduler = new PluginScheduler();
+    private final Disposable parent = Disposer.newDisposable("PluginSchedulerTest");
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        Disposer.dispose(parent);
+        scheduler.dispose();
+    }
+
+    @Test
+    void cancelBeforeRunReleasesQueuedTask() throws Exception {
+        occupyAllThreads();
+        AtomicBoolean ran = new AtomicBoolean();
+        Future<?> future = scheduler.execute("Queued", parent, () -> ran.set(true));
+        assertEquals(1, scheduler.getStatistics().queued());
+
+        assertTrue(future.cancel(true));
+
+        assertEquals(0, scheduler.getStatistics().queued());
+        release.countDown();
+        awaitIdle();
+        assertFalse(ran.get());
+        //The cancelled task is no longer registered, disposing its parent does not count it again
+        Disposer.dispose(parent);
+        assertEquals(0, scheduler.getStatistics().queued());
+    }
+
+    @Test
+    void cancelBeforeDelayReleasesScheduledTask() {
+        ScheduledFuture<?> future = scheduler.schedule("Delayed", parent, () -> {
+        }, 1, TimeUnit.HOURS);
+        assertEquals(1, scheduler.getStatistics().scheduled());
+        assertTrue(future.getDelay(TimeUnit.MINUTES) > 0);
+
+        assertTrue(future.cancel(false));
+
+        assertEquals(0, scheduler.getStatistics().scheduled());
+        assertFalse(future.cancel(false));
+        Disposer.dispose(parent);
+        assertEquals(0, scheduler.getStatistics().scheduled());
+    }
+
+    @Test
+    void cancelReleasesPeriodicTask() {
+        ScheduledFuture<?> future = scheduler.scheduleWithFixedDelay("Periodic", parent, () -> {
+        }, 1, 1, TimeUnit.HOURS);
+        assertEquals(1, scheduler.getStatistics().scheduled());
+
+        assertTrue(future.cancel(false));
+
+        assertEquals(0, scheduler.getStatistics().scheduled());
+        Disposer.dispose(parent);
+        assertEquals(0, scheduler.getStatistics().scheduled());
+    }
+
+    @Test
+    void disposingParentReleasesQueuedTask() throws Exception {
+        occupyAllThreads();
+        Disposable child = Disposer.newDisposable(parent, "Child");
+        Future<?> future = scheduler.execute("Queued", child, () -> {
+        });
+        assertEquals(1, scheduler.getStatistics().queued());
+
+        Disposer.dispose(child);
+
+        assertTrue(future.isCancelled());
+        assertEquals(0, scheduler.getStatistics().queued());
+    }
+
+    @Test
+    void cancelAfterRunChangesNothing() throws Exception {
+        Future<String> future = scheduler.submit("Done", parent, () -> "result");
+        assertEquals("result", future.get(10, TimeUnit.SECONDS));
+
+        assertFalse(future.cancel(true));
+
+        assertEquals(1, scheduler.getStatistics().completed());
+        assertEquals(0, scheduler.getStatistics().queued());
+    }
+
+    @Test
+    void saturatedNetworkPoolDoesNotDelayShortTasks() throws Exception {
+        occupyBlockingThreads(PluginScheduler.MAX_BLOCKING_THREADS);
+        Future<?> blocked = scheduler.executeBlocking("Queued call", parent, () -> {
+        });
+        assertEquals(1, scheduler.getStatistics().queued());
+
+        Future<String> shortTask = scheduler.submit("Repaint", parent, () -> "done");
+
+        assertEquals("done", shortTask.get(10, TimeUnit.SECONDS));
+        assertFalse(blocked.isDone());
+        release.countDown();
+        blocked.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void networkWaitsDoNotTakeTheShortPool() throws Exception {
+        //More waits than the short pool has threads, as two evaluations, a replay and a pull
+        occupyBlockingThreads(PluginScheduler.MAX_THREADS + 2);
+        assertEquals(0, scheduler.getStatistics().queued());
+
+        Future<String> shortTask = scheduler.submit("Load", parent, () -> "done");
+
+        assertEquals("done", shortTask.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void scheduledNetworkTaskRunsOnceDue() throws Exception {
+        CountDownLatch ran = new CountDownLatch(1);
+        scheduler.scheduleBlocking("Sync", parent, ran::countDown, 10, TimeUnit.MILLISECONDS);
+
+        assertTrue(ran.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Block the given number of threads of the network pool until the end of the test.
+     */
+    private void occupyBlockingThreads(int count) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(count);
+        for (int i = 0; i < count; i++) {
+            scheduler.executeBlocking("Waiting for the web service", parent, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Block every thread of the short pool of the scheduler until the end of the test.
+     */
+    private void occupyAllThreads() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(PluginScheduler.MAX_THREADS);
+        for (int i = 0; i < PluginScheduler.MAX_THREADS; i++) {
+            scheduler.execute("Blocking", parent, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (scheduler.getStatistics().running() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import vplwsclient.RestJsonMoodleClient.VPLService;
+import vplwsclient.exception.VplConnectionException;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the sharing of the calls in flight by {@link SingleFlight}.
+ */
+class SingleFlightTest {
+
+    private static final JsonObject ANSWER = Json.createObjectBuilder().add("name", "Exercise").build();
+
+    private final SingleFlight flights = new SingleFlight();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final CountDownLatch leaderStarted = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void waitersShareTheAnswer() throws Exception {
+        Future<JsonObject> leader = callers.submit(() -> flights.call("1", "token", VPLService.VPL_INFO, this::blockingCall));
+        assertTrue(leaderStarted.await(10, TimeUnit.SECONDS));
+        Future<JsonObject> waiter = callers.submit(() -> flights.call("1", "token", VPLService.VPL_INFO, this::blockingCall));
+
+        release.countDown();
+
+        assertSame(ANSWER, leader.get(10, TimeUnit.SECONDS));
+        assertSame(ANSWER, waiter.get(10, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void waiterCallsAgainWhenLeaderIsCancelled() throws Exception {
+        Future<JsonObject> leader = callers.submit(() -> flights.call("1", "token", VPLService.VPL_INFO, this::blockingCall));
+        assertTrue(leaderStarted.await(10, TimeUnit.SECONDS));
+        CountDownLatch waiting = new CountDownLatch(1);
+        Future<JsonObject> waiter = callers.submit(() -> {
+            waiting.countDown();
+            return flights.call("1", "token", VPLService.VPL_INFO, service -> {
+                calls.incrementAndGet();
+                return ANSWER;
+            });
+        });
+        assertTrue(waiting.await(10, TimeUnit.SECONDS));
+        //Let the waiter join the call in flight
+        Thread.sleep(100);
+
+        leader.cancel(true);
+
+        assertSame(ANSWER, waiter.get(10, TimeUnit.SECONDS));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void connectionFailureIsShared() throws Exception {
+        Future<JsonObject> leader = callers.submit(() -> flights.call("1", "token", VPLService.VPL_INFO, service -> {
+            blockingCall(service);
+            throw new VplConnectionException("HTTP 503");
+        }));
+        assertTrue(leaderStarted.await(10, TimeUnit.SECONDS));
+        Future<JsonObject> waiter = callers.submit(() -> flights.call("1", "token", VPLService.VPL_INFO, this::blockingCall));
+        Thread.sleep(100);
+
+        release.countDown();
+
+        assertInstanceOf(VplConnectionException.class, cause(leader));
+        assertInstanceOf(VplConnectionException.class, cause(waiter));
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * A call which waits for the end of the test, or for its interruption.
+     */
+    private JsonObject blockingCall(VPLService service) {
+        calls.incrementAndGet();
+        leaderStarted.countDown();
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        }
+        return ANSWER;
+    }
+
+    private static Throwable cause(Future<?> future) throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * CompSci Tools Plugin for IntelliJ is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License or
+ * (at your option) any later version.
+ *
+ * CompSci Tools Plugin for IntelliJ is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package sideWindow;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static sideWindow.TestResult.FAILURE;
+import static sideWindow.TestResult.SUCCESS;
+
+/**
+ * Regression tests of {@link EvaluationReportParser}, on reports in the format given by the execution server.
+ * The expected results are the ones of the parser previously embedded in the side window.
+ */
+class EvaluationReportParserTest {
+
+    @Test
+    void parsesSummaryAndTestsWithInput() throws IOException {
+        EvaluationReportParser.Report report = parse("all-passed.txt");
+
+        assertEquals(2, report.getTestsTotal());
+        assertEquals(2, report.getPassedTests());
+        List<TestResult> results = report.getTestResults();
+        assertEquals(2, results.size());
+        assertResult(results.get(0), "Sum of two numbers", "Correct", SUCCESS, "3\n>4", "7", "7");
+        assertResult(results.get(1), "Sum of negative numbers", "Correct", SUCCESS, "-3\n>-4", "-7", "-7");
+    }
+
+    @Test
+    void comparesOutputWithExpectedOutput() throws IOException {
+        EvaluationReportParser.Report report = parse("mixed-results.txt");
+
+        assertEquals(3, report.getTestsTotal());
+        assertEquals(1, report.getPassedTests());
+        List<TestResult> results = report.getTestResults();
+        assertEquals(3, results.size());
+        assertResult(results.get(0), "Hello world", "Correct", SUCCESS, "", "Hello, World!", "Hello, World!");
+        assertResult(results.get(1), "Multiplication table", "Incorrect program output", FAILURE, "3",
+                "3 x 1 = 3\n>3 x 2 = 6\n>3 x 3 = 9", "3 x 1 = 3\n>3 x 2 = 6\n>3 x 3 = 10");
+        //An empty input is not shown
+        assertResult(results.get(2), "Empty input", "Incorrect program output", FAILURE, "", "0", "Error: no value");
+    }
+
+    @Test
+    void trimsBlankLinesAndSpaces() throws IOException {
+        EvaluationReportParser.Report report = parse("blank-lines.txt");
+
+        assertEquals(2, report.getTestsTotal());
+        assertEquals(2, report.getPassedTests());
+        List<TestResult> results = report.getTestResults();
+        assertEquals(2, results.size());
+        assertResult(results.get(0), "Spaced title", "Correct", SUCCESS, "5", "25", "25");
+        assertResult(results.get(1), "Second", "Correct", SUCCESS, "", "ok", "ok");
+    }
+
+    @Test
+    void keepsExtraSectionsInExpectedOutput() throws IOException {
+        EvaluationReportParser.Report report = parse("extra-sections.txt");
+
+        assertEquals(2, report.getTestsTotal());
+        assertEquals(1, report.getPassedTests());
+        List<TestResult> results = report.getTestResults();
+        assertEquals(2, results.size());
+        assertResult(results.get(0), "Greeting", "Incorrect program output", FAILURE, "Ada",
+                "Hello, Ada\n --- Program error ---\n>Exception in thread \"main\"", "Hello Ada");
+        assertResult(results.get(1), "Farewell", "Correct", SUCCESS, "", "Bye", "Bye");
+    }
+
+    @Test
+    void stopsAtTestWithoutExpectedOutput() throws IOException {
+        EvaluationReportParser.Report report = parse("missing-expected.txt");
+
+        assertEquals(2, report.getTestsTotal());
+        assertEquals(1, report.getPassedTests());
+        List<TestResult> results = report.getTestResults();
+        assertEquals(1, results.size());
+        assertResult(results.get(0), "Complete test", "Correct", SUCCESS, "1", "1", "1");
+    }
+
+    @Test
+    void stopsAtTestWithoutSections() throws IOException {
+        EvaluationReportParser.Report report = parse("missing-sections.txt");
+
+        assertEquals(2, report.getTestsTotal());
+        assertEquals(1, report.getPassedTests());
+        List<TestResult> results = report.getTestResults();
+        assertEquals(1, results.size());
+        assertResult(results.get(0), "Complete test", "Correct", SUCCESS, "", "1", "1");
+    }
+
+    @Test
+    void takesRestOfReportWhenNextTestStartsRightAfterExpectedTitle() throws IOException {
+        EvaluationReportParser.Report report = parse("adjacent-tests.txt");
+
+        List<TestResult> results = report.getTestResults();
+        assertEquals(2, results.size());
+        //The next title is not searched for at the cursor itself, so the expected output runs to the end of the tests
+        assertResult(results.get(0), "Empty expected output", "Correct", FAILURE, "",
+                "-Test 2: Next test\nCorrect\n --- Program output ---\n>2\n --- Expected output (exact text)---\n>2", "");
+        assertResult(results.get(1), "Next test", "Correct", SUCCESS, "", "2", "2");
+    }
+
+    @Test
+    void returnsNoTestsForFailedCompilation() throws IOException {
+        EvaluationReportParser.Report report = parse("compilation-error.txt");
+
+        assertEquals(0, report.getTestsTotal());
+        assertEquals(0, report.getPassedTests());
+        assertTrue(report.getTestResults().isEmpty());
+    }
+
+    @Test
+    void rejectsReportWithoutSummary() throws IOException {
+        assertNull(EvaluationReportParser.parse(read("no-summary.txt")));
+    }
+
+    @Test
+    void rejectsInvalidSummary() throws IOException {
+        assertNull(EvaluationReportParser.parse(read("invalid-summary.txt")));
+    }
+
+    @Test
+    void rejectsEmptyReport() {
+        assertNull(EvaluationReportParser.parse(""));
+    }
+
+    private static void assertResult(TestResult result, String name, String message, String success,
+                                     String input, String expected, String output) {
+        assertEquals(name, result.getName());
+        assertEquals(message, result.getNodeName());
+        assertEquals(success, result.getSuccess());
+        StringBuilder html = new StringBuilder("<p style=\"text-align: center;\">").append(message).append("</p>");
+        if (!input.isEmpty()) {
+            html.append("<p>Input:</p>\n<pre>").append(input).append("</pre>");
+        }
+        html.append("<p>Expected Output:</p>\n<pre>").append(expected).append("</pre>");
+        html.append("<p>Execution Output:</p>\n<pre>").append(output).append("</pre>");
+        assertEquals(html.toString(), result.getMessage());
+    }
+
+    private static EvaluationReportParser.Report parse(String fixture) throws IOException {
+        EvaluationReportParser.Report report = EvaluationReportParser.parse(read(fixture));
+        assertNotNull(report);
+        return report;
+    }
+
+    private static String read(String fixture) throws IOException {
+        try (InputStream is = EvaluationReportParserTest.class.getResourceAsStream("/reports/" + fixture)) {
+            assertNotNull(is, fixture);
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}